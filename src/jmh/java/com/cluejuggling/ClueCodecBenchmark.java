@@ -0,0 +1,82 @@
+package com.cluejuggling;
+
+import com.google.gson.Gson;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Saving and loading clues with {@link ClueCodec} against the json saves it replaced.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ClueCodecBenchmark
+{
+	@Param({"1", "12", "100", "1000"})
+	public int clues;
+
+	private final Gson gson = new Gson();
+	private final ClueCodec codec = new ClueCodec();
+	private final ClueTable table = new ClueTable();
+	private final ClueTable decoded = new ClueTable();
+	private String binary;
+	private String json;
+
+	@Setup
+	public void setup() throws IOException
+	{
+		for (int i = 0; i < clues; i++)
+		{
+			int location = GroundItemKey.packLocation(3136 + i % 64, 3136 + i / 64, 0);
+			table.add(HeadlessPlugin.CLUES[i % HeadlessPlugin.CLUES.length], location, 0, 3600 - i, 6000, i % 3 == 0 ? ClueTable.NOTIFIED : 0);
+		}
+		binary = encodeBinary();
+		json = encodeJson();
+	}
+
+	@Benchmark
+	public String encodeBinary()
+	{
+		return codec.encode(table);
+	}
+
+	@Benchmark
+	public String encodeJson() throws IOException
+	{
+		StringWriter out = new StringWriter();
+		JsonClueWriter.write(table, gson.newJsonWriter(out));
+		return out.toString();
+	}
+
+	@Benchmark
+	public ClueTable decodeBinary() throws IOException
+	{
+		decoded.clear();
+		ClueCodec.decode(binary, decoded, 0, 0, 0);
+		return decoded;
+	}
+
+	@Benchmark
+	public ClueTable decodeJson() throws IOException
+	{
+		decoded.clear();
+		decoded.readJson(gson.newJsonReader(new StringReader(json)), 0, 0, 0);
+		return decoded;
+	}
+}
@@ -0,0 +1,51 @@
+package com.cluejuggling;
+
+import java.util.concurrent.TimeUnit;
+import net.runelite.api.coords.WorldPoint;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * onGameTick with no item events, which is what almost every tick looks like while juggling.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GameTickBenchmark
+{
+	@Param({"1", "10", "100", "1000"})
+	public int clues;
+
+	private HeadlessPlugin headless;
+
+	@Setup
+	public void setup()
+	{
+		headless = new HeadlessPlugin().start();
+		for (int i = 0; i < clues; i++)
+		{
+			int itemId = HeadlessPlugin.CLUES[i % HeadlessPlugin.CLUES.length];
+			headless.plugin.onItemSpawned(headless.spawned(itemId, new WorldPoint(3136 + i % 64, 3136 + i / 64, 0), headless.getTick() + 6000));
+		}
+		headless.plugin.onGameTick(null);
+	}
+
+	@Benchmark
+	public void onGameTick()
+	{
+		headless.setTick(headless.getTick() + 1);
+		headless.plugin.onGameTick(null);
+	}
+}
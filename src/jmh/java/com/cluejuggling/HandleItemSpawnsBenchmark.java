@@ -0,0 +1,92 @@
+package com.cluejuggling;
+
+import java.util.concurrent.TimeUnit;
+import net.runelite.api.coords.WorldPoint;
+import net.runelite.api.events.ItemDespawned;
+import net.runelite.api.events.ItemSpawned;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * One tick's worth of item events followed by the tick that reconciles them. Spawns and despawns pair up as fake
+ * despawns (ladders, scene loads), extra spawns are clues that are already tracked, and extra despawns are items that
+ * aren't tracked, so the tracked set doesn't change between invocations.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HandleItemSpawnsBenchmark
+{
+	// spawns:despawns
+	@Param({"2:2", "10:40", "40:10", "200:200", "1000:1000"})
+	public String events;
+
+	private HeadlessPlugin headless;
+	private ItemSpawned[] spawns;
+	private ItemDespawned[] despawns;
+
+	@Setup
+	public void setup()
+	{
+		String[] split = events.split(":");
+		int spawnCount = Integer.parseInt(split[0]);
+		int despawnCount = Integer.parseInt(split[1]);
+
+		headless = new HeadlessPlugin().start();
+		spawns = new ItemSpawned[spawnCount];
+		for (int i = 0; i < spawnCount; i++)
+		{
+			spawns[i] = headless.spawned(clue(i), location(i), headless.getTick() + 6000);
+		}
+		despawns = new ItemDespawned[despawnCount];
+		for (int i = 0; i < despawnCount; i++)
+		{
+			despawns[i] = i < spawnCount
+				? headless.despawned(clue(i), location(i))
+				: headless.despawned(HeadlessPlugin.JUNK, location(i));
+		}
+
+		// Track the spawns that won't be paired with a despawn.
+		for (int i = despawnCount; i < spawnCount; i++)
+		{
+			headless.plugin.onItemSpawned(spawns[i]);
+		}
+		headless.plugin.onGameTick(null);
+	}
+
+	private static int clue(int i)
+	{
+		return HeadlessPlugin.CLUES[i % HeadlessPlugin.CLUES.length];
+	}
+
+	private static WorldPoint location(int i)
+	{
+		return new WorldPoint(3136 + i % 64, 3136 + i / 64, 0);
+	}
+
+	@Benchmark
+	public void handleItemSpawns()
+	{
+		for (ItemDespawned despawn : despawns)
+		{
+			headless.plugin.onItemDespawned(despawn);
+		}
+		for (ItemSpawned spawn : spawns)
+		{
+			headless.plugin.onItemSpawned(spawn);
+		}
+		headless.plugin.onGameTick(null);
+	}
+}
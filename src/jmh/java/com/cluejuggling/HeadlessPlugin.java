@@ -0,0 +1,212 @@
+package com.cluejuggling;
+
+import com.google.gson.Gson;
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import javax.inject.Inject;
+import net.runelite.api.Client;
+import net.runelite.api.GameState;
+import net.runelite.api.ItemComposition;
+import net.runelite.api.Tile;
+import net.runelite.api.TileItem;
+import net.runelite.api.coords.WorldPoint;
+import net.runelite.api.events.ItemDespawned;
+import net.runelite.api.events.ItemSpawned;
+import net.runelite.client.callback.ClientThread;
+import net.runelite.client.config.ConfigManager;
+import net.runelite.client.game.ItemManager;
+import net.runelite.client.ui.overlay.infobox.InfoBox;
+import net.runelite.client.ui.overlay.infobox.InfoBoxManager;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.CALLS_REAL_METHODS;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * A ClueScrollJugglingPlugin wired up to stubs instead of a game client. Client thread callbacks run right away on the
+ * calling thread, and infoboxes go into {@link #infoBoxes}.
+ */
+class HeadlessPlugin
+{
+	static final int JUNK = 526; // bones
+	static final int[] CLUES = {23182, 2677, 2801, 2722, 12073, 19835}; // beginner through master
+
+	// daemon, so replays exit when they're done.
+	private static final ScheduledExecutorService EXECUTOR = Executors.newSingleThreadScheduledExecutor(runnable -> {
+		Thread thread = new Thread(runnable, "headless-plugin-executor");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	final ClueScrollJugglingPlugin plugin = new ClueScrollJugglingPlugin(tempStore());
+	final Client client = stubOnly(Client.class);
+	final ItemManager itemManager = stubOnly(ItemManager.class);
+	final InfoBoxManager infoBoxManager = stubOnly(InfoBoxManager.class);
+	final ClientThread clientThread = stubOnly(ClientThread.class);
+	final ClueScrollJugginglingConfig config = mock(ClueScrollJugginglingConfig.class, withSettings().stubOnly().defaultAnswer(CALLS_REAL_METHODS));
+	final ConfigManager configManager = stubOnly(ConfigManager.class);
+	final List<InfoBox> infoBoxes = new CopyOnWriteArrayList<>();
+
+	private final Map<Integer, ItemComposition> compositions = new HashMap<>();
+	private int tick = 0;
+	// puts the tiles the benchmarks use, around 3200, 3200, in the scene.
+	private int baseX = 3104;
+	private int baseY = 3104;
+
+	HeadlessPlugin()
+	{
+		when(client.getTickCount()).thenAnswer(invocation -> tick);
+		when(client.getBaseX()).thenAnswer(invocation -> baseX);
+		when(client.getBaseY()).thenAnswer(invocation -> baseY);
+		when(client.getGameState()).thenReturn(GameState.LOGGED_IN);
+		when(itemManager.getItemComposition(anyInt())).thenAnswer(invocation -> composition(invocation.getArgument(0)));
+		doAnswer(invocation -> {
+			((Runnable) invocation.getArgument(0)).run();
+			return null;
+		}).when(clientThread).invokeLater(any(Runnable.class));
+		doAnswer(invocation -> infoBoxes.add(invocation.getArgument(0))).when(infoBoxManager).addInfoBox(any());
+		doAnswer(invocation -> infoBoxes.remove(invocation.<InfoBox>getArgument(0))).when(infoBoxManager).removeInfoBox(any());
+		when(infoBoxManager.getInfoBoxes()).thenReturn(infoBoxes);
+		when(configManager.getRSProfileKey()).thenReturn("headless");
+
+		String[] tiers = {"beginner", "easy", "medium", "hard", "elite", "master"};
+		for (int i = 0; i < CLUES.length; i++)
+		{
+			defineItem(CLUES[i], "Clue scroll (" + tiers[i] + ")");
+		}
+		defineItem(JUNK, "Bones");
+
+		try {
+			inject();
+		} catch (IllegalAccessException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * Its own store, so it starts empty and doesn't touch the real one.
+	 */
+	private static File tempStore()
+	{
+		try {
+			File store = File.createTempFile("clue-store", ".dat");
+			store.deleteOnExit();
+			return store;
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private void inject() throws IllegalAccessException
+	{
+		for (Field field : ClueScrollJugglingPlugin.class.getDeclaredFields())
+		{
+			if (!field.isAnnotationPresent(Inject.class)) continue;
+			field.setAccessible(true);
+			field.set(plugin, stub(field.getType()));
+		}
+	}
+
+	private Object stub(Class<?> type)
+	{
+		if (type == Client.class) return client;
+		if (type == ItemManager.class) return itemManager;
+		if (type == InfoBoxManager.class) return infoBoxManager;
+		if (type == ClientThread.class) return clientThread;
+		if (type == ClueScrollJugginglingConfig.class) return config;
+		if (type == ConfigManager.class) return configManager;
+		if (type == Gson.class) return new Gson();
+		if (type == ScheduledExecutorService.class) return EXECUTOR;
+		return stubOnly(type);
+	}
+
+	/**
+	 * A mock that doesn't record its invocations. A plain one keeps every call, which the benchmarks' allocation numbers
+	 * would be measuring, and which keeps growing for as long as a replay runs. Calls to these still allocate a little
+	 * for Mockito's invocation, but nothing is kept.
+	 */
+	private static <T> T stubOnly(Class<T> type)
+	{
+		return mock(type, withSettings().stubOnly());
+	}
+
+	/**
+	 * Starts the plugin, which logs in since the stub client is always logged in.
+	 */
+	HeadlessPlugin start()
+	{
+		plugin.startUp();
+		return this;
+	}
+
+	void defineItem(int itemId, String name)
+	{
+		ItemComposition composition = stubOnly(ItemComposition.class);
+		when(composition.getId()).thenReturn(itemId);
+		when(composition.getName()).thenReturn(name);
+		when(composition.getMembersName()).thenReturn(name);
+		when(composition.getNote()).thenReturn(-1);
+		compositions.put(itemId, composition);
+	}
+
+	private ItemComposition composition(int itemId)
+	{
+		ItemComposition composition = compositions.get(itemId);
+		if (composition == null) {
+			defineItem(itemId, "Item " + itemId);
+			composition = compositions.get(itemId);
+		}
+		return composition;
+	}
+
+	int getTick()
+	{
+		return tick;
+	}
+
+	void setTick(int tick)
+	{
+		this.tick = tick;
+	}
+
+	void setBase(int baseX, int baseY)
+	{
+		this.baseX = baseX;
+		this.baseY = baseY;
+	}
+
+	ItemSpawned spawned(int itemId, WorldPoint location, int despawnTick)
+	{
+		return new ItemSpawned(tile(location), tileItem(itemId, despawnTick));
+	}
+
+	ItemDespawned despawned(int itemId, WorldPoint location)
+	{
+		return new ItemDespawned(tile(location), tileItem(itemId, 0));
+	}
+
+	private static Tile tile(WorldPoint location)
+	{
+		Tile tile = stubOnly(Tile.class);
+		when(tile.getWorldLocation()).thenReturn(location);
+		return tile;
+	}
+
+	private static TileItem tileItem(int itemId, int despawnTick)
+	{
+		TileItem item = stubOnly(TileItem.class);
+		when(item.getId()).thenReturn(itemId);
+		when(item.getDespawnTime()).thenReturn(despawnTick);
+		return item;
+	}
+}
@@ -0,0 +1,65 @@
+package com.cluejuggling;
+
+import java.awt.Color;
+import java.util.concurrent.TimeUnit;
+import net.runelite.api.coords.WorldPoint;
+import net.runelite.client.ui.overlay.infobox.InfoBox;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import static org.mockito.Mockito.when;
+
+/**
+ * What InfoBoxManager asks a timer infobox for every frame.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InfoBoxTextBenchmark
+{
+	@Param({"false", "true"})
+	public boolean combineTimers;
+
+	@Param({"12"})
+	public int clues;
+
+	private InfoBox infoBox;
+
+	@Setup
+	public void setup()
+	{
+		HeadlessPlugin headless = new HeadlessPlugin();
+		when(headless.config.combineTimers()).thenReturn(combineTimers);
+		headless.start();
+		for (int i = 0; i < clues; i++)
+		{
+			int itemId = HeadlessPlugin.CLUES[i % HeadlessPlugin.CLUES.length];
+			headless.plugin.onItemSpawned(headless.spawned(itemId, new WorldPoint(3200 + i, 3200, 0), headless.getTick() + 6000));
+		}
+		headless.plugin.onGameTick(null);
+		infoBox = headless.infoBoxes.get(0);
+	}
+
+	@Benchmark
+	public String getText()
+	{
+		return infoBox.getText();
+	}
+
+	@Benchmark
+	public Color getTextColor()
+	{
+		return infoBox.getTextColor();
+	}
+}
@@ -0,0 +1,68 @@
+package com.cluejuggling;
+
+import java.util.concurrent.TimeUnit;
+import net.runelite.api.coords.WorldPoint;
+import net.runelite.api.events.ItemSpawned;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import static org.mockito.Mockito.when;
+
+/**
+ * onItemSpawned for items that aren't clues, which is nearly every spawn. isTrackedItemWithoutVerdicts is the work
+ * ClueClassifier's verdict cache saves on a repeat spawn. It isn't a cold classification: ClueTierTable remembers each
+ * id's tier after the first pass over the items, so what's measured is that array read plus the extraItems match.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ItemSpawnedBenchmark
+{
+	private static final int DISTINCT_ITEMS = 1024;
+
+	@Param({"", "12345,dragon*,*(p++)"})
+	public String extraItems;
+
+	private HeadlessPlugin headless;
+	private ItemSpawned[] spawns;
+	private int next = 0;
+
+	@Setup
+	public void setup()
+	{
+		headless = new HeadlessPlugin();
+		when(headless.config.extraItems()).thenReturn(extraItems);
+		headless.start();
+
+		spawns = new ItemSpawned[DISTINCT_ITEMS];
+		for (int i = 0; i < spawns.length; i++)
+		{
+			spawns[i] = headless.spawned(1000 + i, new WorldPoint(3200 + i % 32, 3200 + i / 32, 0), 100);
+		}
+	}
+
+	@Benchmark
+	public void onItemSpawned()
+	{
+		next = (next + 1) % DISTINCT_ITEMS;
+		headless.plugin.onItemSpawned(spawns[next]);
+	}
+
+	@Benchmark
+	public boolean isTrackedItemWithoutVerdicts()
+	{
+		next = (next + 1) % DISTINCT_ITEMS;
+		return headless.plugin.isTrackedItem(1000 + next);
+	}
+}
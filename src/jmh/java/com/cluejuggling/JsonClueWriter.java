@@ -0,0 +1,37 @@
+package com.cluejuggling;
+
+import com.google.gson.stream.JsonWriter;
+import java.io.IOException;
+
+/**
+ * Writes clues in the json the plugin used to save them as (a list of DroppedClue run through gson), straight from the
+ * table's columns. Saves are {@link ClueCodec}'s now, this is only for comparing the two in {@link ClueCodecBenchmark}.
+ */
+final class JsonClueWriter
+{
+	private JsonClueWriter()
+	{
+	}
+
+	static void write(ClueTable table, JsonWriter out) throws IOException
+	{
+		out.beginArray();
+		for (int slot = table.firstSlot(); slot != -1; slot = table.nextSlot(slot))
+		{
+			int location = table.location(slot);
+			out.beginObject();
+			out.name("timeRemaining").value(table.timeRemaining(slot));
+			out.name("groundItemKey").beginObject();
+			out.name("itemId").value(table.itemId(slot));
+			out.name("location").beginObject();
+			out.name("x").value(location & 0x7FFF);
+			out.name("y").value((location >>> 15) & 0x7FFF);
+			out.name("plane").value((location >>> 30) & 0x3);
+			out.endObject();
+			out.endObject();
+			out.name("notified").value(table.isNotified(slot));
+			out.endObject();
+		}
+		out.endArray();
+	}
+}
@@ -0,0 +1,84 @@
+package com.cluejuggling;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * MatchType.matches for each rule type, against the compiled ExtraItemMatcher with all of them at once.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MatchTypeBenchmark
+{
+	private static final String[] NAMES = {
+		"bones", "clue scroll (easy)", "coins", "clue scroll (master)", "scroll box (elite)", "dragon dagger(p++)",
+		"rune platebody", "reward casket (hard)", "clue geode (medium)", "challenge scroll (elite)",
+	};
+
+	@Param({"EQUALS", "STARTS_WITH", "ENDS_WITH", "CONTAINS", "WILDCARD"})
+	public String matchType;
+
+	private MatchType type;
+	private String prepared;
+	private ExtraItemMatcher compiled;
+	private int next = 0;
+
+	@Setup
+	public void setup()
+	{
+		type = MatchType.valueOf(matchType);
+		String rule = rule(type);
+		prepared = MatchType.prepareMatch(rule, type);
+		compiled = ExtraItemMatcher.compile(String.join(",", rule(MatchType.EQUALS), rule(MatchType.STARTS_WITH), rule(MatchType.ENDS_WITH), rule(MatchType.CONTAINS), rule(MatchType.WILDCARD)));
+	}
+
+	private static String rule(MatchType type)
+	{
+		switch (type) {
+			case EQUALS:
+				return "clue scroll (easy)";
+			case STARTS_WITH:
+				return "scroll box*";
+			case ENDS_WITH:
+				return "*(medium)";
+			case CONTAINS:
+				return "*casket*";
+			case WILDCARD:
+				return "clue*(e*)";
+			default:
+				throw new IllegalArgumentException();
+		}
+	}
+
+	private String nextName()
+	{
+		next = (next + 1) % NAMES.length;
+		return NAMES[next];
+	}
+
+	@Benchmark
+	public boolean matchType()
+	{
+		return type.matches(nextName(), prepared);
+	}
+
+	@Benchmark
+	public boolean compiledMatcher()
+	{
+		return compiled.matchesName(nextName());
+	}
+}
@@ -0,0 +1,208 @@
+package com.cluejuggling;
+
+import com.cluejuggling.ClueScrollJugglingPlugin.DroppedClue;
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import net.runelite.api.GameState;
+import net.runelite.api.events.GameStateChanged;
+import net.runelite.api.events.ItemDespawned;
+import net.runelite.api.events.ItemSpawned;
+import static org.mockito.Mockito.when;
+
+/**
+ * Replays a trace recorded with ::cluetrace through a {@link HeadlessPlugin} as fast as it can, then prints per handler
+ * latency percentiles and the clues that ended up tracked.
+ *
+ * ./gradlew replayTrace -Ptrace=path/to/file.trace [-Pwarmup=5]
+ *
+ * The trace is replayed a few times on fresh plugins first so the JIT has settled before the measured run. Timers count
+ * game ticks (the tickTimers option) during a replay, so clues expire on the trace's ticks however fast it runs.
+ */
+public class TraceReplay
+{
+	private static final String[] HANDLERS = {"onGameTick", "onItemSpawned", "onItemDespawned", "onGameStateChanged"};
+
+	private final List<Object> events = new ArrayList<>();
+	private final List<Integer> itemNameIds = new ArrayList<>();
+	private final List<String> itemNames = new ArrayList<>();
+	private int startTick;
+
+	public static void main(String[] args) throws IOException
+	{
+		if (args.length < 1) {
+			System.err.println("usage: TraceReplay <trace file> [warmup runs]");
+			System.exit(1);
+		}
+		int warmup = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+
+		TraceReplay replay = new TraceReplay();
+		replay.read(new File(args[0]));
+		System.out.println("replaying " + replay.events.size() + " events, " + warmup + " warmup runs");
+
+		for (int i = 0; i < warmup; i++)
+		{
+			replay.run(null);
+		}
+		LatencyHistogram[] histograms = new LatencyHistogram[HANDLERS.length];
+		for (int i = 0; i < histograms.length; i++)
+		{
+			histograms[i] = new LatencyHistogram();
+		}
+		HeadlessPlugin headless = replay.run(histograms);
+
+		for (int i = 0; i < HANDLERS.length; i++)
+		{
+			System.out.println(String.format("%-20s %s", HANDLERS[i], histograms[i]));
+		}
+		System.out.println("plugin's own stats (::cluestats):");
+		for (String line : headless.plugin.getStatsSummary())
+		{
+			System.out.println("  " + line);
+		}
+		ClueTable clues = headless.plugin.getDroppedClues();
+		System.out.println("tracked clues: " + clues.size());
+		for (DroppedClue clue : clues)
+		{
+			System.out.println("  " + clue.getItemId() + " at " + clue.getLocation() + ", " + clue.getTimeRemaining() + "s" + (clue.isNotified() ? ", notified" : ""));
+		}
+	}
+
+	private HeadlessPlugin run(LatencyHistogram[] histograms)
+	{
+		HeadlessPlugin headless = new HeadlessPlugin();
+		for (int i = 0; i < itemNames.size(); i++)
+		{
+			headless.defineItem(itemNameIds.get(i), itemNames.get(i));
+		}
+		when(headless.config.tickTimers()).thenReturn(true);
+		headless.setTick(startTick);
+		headless.start();
+
+		ClueScrollJugglingPlugin plugin = headless.plugin;
+		for (Object event : events)
+		{
+			if (event instanceof TickStart) {
+				headless.setTick(((TickStart) event).tick);
+				continue;
+			}
+			if (event instanceof int[]) {
+				int[] base = (int[]) event;
+				headless.setBase(base[0], base[1]);
+				continue;
+			}
+
+			int handler;
+			long start = System.nanoTime();
+			if (event instanceof Integer) {
+				plugin.onGameTick(null);
+				handler = 0;
+			} else if (event instanceof ItemSpawned) {
+				plugin.onItemSpawned((ItemSpawned) event);
+				handler = 1;
+			} else if (event instanceof ItemDespawned) {
+				plugin.onItemDespawned((ItemDespawned) event);
+				handler = 2;
+			} else {
+				plugin.onGameStateChanged((GameStateChanged) event);
+				handler = 3;
+			}
+			long elapsed = System.nanoTime() - start;
+			if (histograms != null) histograms[handler].record(elapsed);
+		}
+		return headless;
+	}
+
+	/**
+	 * Reads the whole trace up front and builds the event objects, so file reading and stub creation aren't timed.
+	 */
+	private void read(File file) throws IOException
+	{
+		// Only used for its event factories, which don't depend on the instance's state.
+		HeadlessPlugin factory = new HeadlessPlugin();
+		// A tick's item events are recorded before its TICK, which onGameTick writes. They're held here until the TICK
+		// is read, then go in after a TickStart, so the stub's tick count is the one the client had for them.
+		List<Object> pending = new ArrayList<>();
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file))))
+		{
+			if (in.readInt() != EventTraceWriter.MAGIC) throw new IOException("not a clue trace");
+			int version = in.readUnsignedByte();
+			if (version != EventTraceWriter.VERSION) throw new IOException("unsupported trace version " + version);
+			startTick = readVarInt(in);
+
+			int type;
+			while ((type = in.read()) != -1)
+			{
+				switch (type) {
+					case EventTraceWriter.TICK: {
+						int tick = readVarInt(in);
+						events.add(new TickStart(tick));
+						events.addAll(pending);
+						pending.clear();
+						events.add(tick);
+						break;
+					}
+					case EventTraceWriter.SPAWN: {
+						int itemId = readVarInt(in);
+						int location = in.readInt();
+						int despawnTick = readVarInt(in);
+						pending.add(factory.spawned(itemId, GroundItemKey.unpackLocation(location), despawnTick));
+						break;
+					}
+					case EventTraceWriter.DESPAWN: {
+						int itemId = readVarInt(in);
+						int location = in.readInt();
+						pending.add(factory.despawned(itemId, GroundItemKey.unpackLocation(location)));
+						break;
+					}
+					case EventTraceWriter.GAME_STATE: {
+						GameStateChanged gameStateChanged = new GameStateChanged();
+						gameStateChanged.setGameState(GameState.of(readVarInt(in)));
+						pending.add(gameStateChanged);
+						break;
+					}
+					case EventTraceWriter.SCENE: {
+						pending.add(new int[]{readVarInt(in), readVarInt(in)});
+						break;
+					}
+					case EventTraceWriter.ITEM_NAME:
+						itemNameIds.add(readVarInt(in));
+						itemNames.add(in.readUTF());
+						break;
+					default:
+						throw new IOException("unknown record type " + type);
+				}
+			}
+		}
+		// the recording stopped partway through a tick.
+		events.addAll(pending);
+	}
+
+	private static final class TickStart
+	{
+		final int tick;
+
+		TickStart(int tick)
+		{
+			this.tick = tick;
+		}
+	}
+
+	private static int readVarInt(DataInputStream in) throws IOException
+	{
+		int value = 0;
+		for (int shift = 0; shift < 35; shift += 7)
+		{
+			int b = in.read();
+			if (b == -1) throw new EOFException();
+			value |= (b & 0x7F) << shift;
+			if ((b & 0x80) == 0) return value;
+		}
+		throw new IOException("malformed varint");
+	}
+}
@@ -0,0 +1,49 @@
+package com.cluejuggling;
+
+import java.util.Arrays;
+import java.util.function.IntPredicate;
+
+/**
+ * Caches whether spawns of an item id should be tracked, since almost every item that spawns isn't a clue and working
+ * that out needs an ItemComposition and a bunch of string matching. Client thread only.
+ */
+class ClueClassifier
+{
+	private static final byte UNKNOWN = 0;
+	private static final byte TRACK = 1;
+	private static final byte IGNORE = 2;
+
+	private final IntPredicate classifier;
+	private byte[] verdicts = new byte[32768];
+
+	/**
+	 * @param classifier the uncached check, called once per item id until {@link #invalidate()}.
+	 */
+	ClueClassifier(IntPredicate classifier)
+	{
+		this.classifier = classifier;
+	}
+
+	boolean shouldTrack(int itemId)
+	{
+		if (itemId < 0) return false;
+		if (itemId >= verdicts.length) {
+			verdicts = Arrays.copyOf(verdicts, Integer.highestOneBit(itemId) << 1);
+		}
+
+		byte verdict = verdicts[itemId];
+		if (verdict == UNKNOWN) {
+			verdict = classifier.test(itemId) ? TRACK : IGNORE;
+			verdicts[itemId] = verdict;
+		}
+		return verdict == TRACK;
+	}
+
+	/**
+	 * Call when anything the classifier depends on changes, e.g. extraItems or the tier toggles.
+	 */
+	void invalidate()
+	{
+		Arrays.fill(verdicts, UNKNOWN);
+	}
+}
@@ -0,0 +1,111 @@
+package com.cluejuggling;
+
+import com.cluejuggling.ClueScrollJugglingPlugin.DroppedClue;
+import lombok.Getter;
+import net.runelite.api.Constants;
+
+/**
+ * Min-heaps of clue notification and expiry deadlines, so a tick only has to look at clues that are actually due.
+ *
+ * The heaps hold clue ids, not clues. Removed clues aren't taken out of the heaps, their ids are skipped when they
+ * reach the top instead since ids are never reused. Deadlines depend on config, so {@link #reschedule} has to be
+ * called when dropTimerReduction, notificationTime or tickTimers change.
+ *
+ * Deadlines are either epoch millis, or client tick counts in tick mode, and the "now" passed to the poll methods has
+ * to be in the same unit.
+ */
+class ClueScheduler
+{
+	private final ClueTable table;
+	private final DeadlineHeap notifications = new DeadlineHeap();
+	private final DeadlineHeap expiries = new DeadlineHeap();
+	@Getter
+	private boolean tickMode = false;
+
+	ClueScheduler(ClueTable table)
+	{
+		this.table = table;
+	}
+
+	/**
+	 * @param notificationSeconds 0 to not schedule a notification.
+	 */
+	void schedule(DroppedClue clue, int percentageReduction, int notificationSeconds)
+	{
+		long expiresAt;
+		long notifyAt;
+		if (tickMode) {
+			// ticks don't drift, so there's nothing to reduce.
+			expiresAt = table.despawnTick(clue.slot);
+			notifyAt = expiresAt - (long) Math.ceil(notificationSeconds * 1000.0 / Constants.GAME_TICK_LENGTH);
+		} else {
+			expiresAt = table.deadline(clue.slot, percentageReduction);
+			table.setExpiresAt(clue.slot, expiresAt);
+			notifyAt = expiresAt - notificationSeconds * 1000L;
+		}
+		expiries.add(expiresAt, clue.id);
+		if (notificationSeconds > 0 && !table.isNotified(clue.slot)) {
+			notifications.add(notifyAt, clue.id);
+		}
+	}
+
+	/**
+	 * Also the only place the tick mode changes, since the heaps have to be rebuilt in the new unit.
+	 */
+	void reschedule(int percentageReduction, int notificationSeconds, boolean tickMode)
+	{
+		this.tickMode = tickMode;
+		clear();
+		for (DroppedClue clue : table)
+		{
+			schedule(clue, percentageReduction, notificationSeconds);
+		}
+	}
+
+	/**
+	 * @return a tracked clue whose notification time is before now, or null if there are none.
+	 */
+	DroppedClue pollNotification(long now)
+	{
+		DroppedClue clue = peekLive(notifications);
+		if (clue == null || notifications.peekDeadline() >= now) return null;
+		notifications.poll();
+		return clue;
+	}
+
+	/**
+	 * @return a tracked clue whose despawn time is before now, or null if there are none.
+	 */
+	DroppedClue pollExpired(long now)
+	{
+		DroppedClue clue = peekLive(expiries);
+		if (clue == null || expiries.peekDeadline() >= now) return null;
+		expiries.poll();
+		return clue;
+	}
+
+	/**
+	 * @return the tracked clue that despawns soonest, or null if there are none.
+	 */
+	DroppedClue peekExpiry()
+	{
+		return peekLive(expiries);
+	}
+
+	void clear()
+	{
+		notifications.clear();
+		expiries.clear();
+	}
+
+	private DroppedClue peekLive(DeadlineHeap heap)
+	{
+		while (!heap.isEmpty())
+		{
+			DroppedClue clue = table.getById(heap.peekId());
+			if (clue != null) return clue;
+			heap.poll();
+		}
+		return null;
+	}
+}
@@ -112,33 +112,79 @@ public interface ClueScrollJugginglingConfig extends Config
 		return (int) Math.floor(previousValue / 60.0 * 100);
 	}
 
+	@ConfigItem(
+		keyName = "tickTimers",
+		name = "Count game ticks",
+		description = "Time clues by the game's tick count instead of the clock. This doesn't drift, so the drop timer multiplier isn't used.",
+		position = 8
+	)
+	default boolean tickTimers()
+	{
+		return false;
+	}
+
 	@ConfigItem(
 		keyName = "combineTimers",
 		name = "Combine infoboxes",
 		description = "Show only 1 infobox, with the lowest time remaining.",
-		position = 8
+		position = 9
 	)
 	default boolean combineTimers()
 	{
 		return false;
 	}
 
+	@ConfigItem(
+		keyName = "overlayTimers",
+		name = "Single overlay",
+		description = "Draw all the timers in one overlay instead of an infobox per clue. Combine infoboxes isn't used with this on.",
+		position = 10
+	)
+	default boolean overlayTimers()
+	{
+		return false;
+	}
+
+	@ConfigItem(
+		keyName = "tileTimers",
+		name = "Timers on tiles",
+		description = "Show each clue's time remaining on the tile it's on.",
+		position = 11
+	)
+	default boolean tileTimers()
+	{
+		return false;
+	}
+
 	@ConfigItem(
 		keyName = "extraItems",
 		name = "Track more items (id or name)",
 		description = "comma separated, * wildcard supported",
-		position = 9
+		position = 12
 	)
 	default String extraItems()
 	{
 		return "";
 	}
 
+	@ConfigItem(
+		keyName = "saveInterval",
+		name = "Save interval",
+		description = "Clue timers are saved at most this often. Changes in between are saved together. They are always saved on logout. Only used if the clue store in the .runelite folder can't be opened, the store saves each change as it happens.",
+		position = 13
+	)
+	@Units(Units.SECONDS)
+	@Range(min=1)
+	default int saveInterval()
+	{
+		return 10;
+	}
+
 	@ConfigItem(
 		keyName = "hidden",
-		name = "<html>Shift-right-click the infoboxes for more options.<br>You can use the ::clearclues command to clear all infoboxes.</html>",
+		name = "<html>Shift-right-click the infoboxes for more options.<br>You can use the ::clearclues command to clear all infoboxes.<br>::cluestats shows how much time the plugin is using (::cluestats reset to reset).<br>::cluesnearby [tiles] lists the clues near you, nearest first.</html>",
 		description = "",
-		position = 10
+		position = 14
 	)
 	default void shiftRightClickInfo()
 	{
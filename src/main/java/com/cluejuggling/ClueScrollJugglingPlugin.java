@@ -1,29 +1,38 @@
 package com.cluejuggling;
 
-import com.cluejuggling.GroundItem.GroundItemKey;
+import com.google.common.collect.ImmutableSet;
 import com.google.gson.Gson;
-import com.google.gson.reflect.TypeToken;
 import com.google.inject.Provides;
 import java.awt.Color;
-import java.time.Duration;
-import java.time.Instant;
-import java.util.ArrayList;
-import java.util.HashSet;
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.function.Predicate;
 import javax.inject.Inject;
-import lombok.Data;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import net.runelite.api.ChatMessageType;
 import net.runelite.api.Client;
+import net.runelite.api.Constants;
 import net.runelite.api.GameState;
 import net.runelite.api.ItemComposition;
 import net.runelite.api.ItemID;
 import net.runelite.api.MenuAction;
 import net.runelite.api.MenuEntry;
 import net.runelite.api.TileItem;
+import net.runelite.api.coords.WorldPoint;
 import net.runelite.api.events.CommandExecuted;
 import net.runelite.api.events.GameStateChanged;
 import net.runelite.api.events.GameTick;
@@ -31,21 +40,21 @@ import net.runelite.api.events.ItemDespawned;
 import net.runelite.api.events.ItemSpawned;
 import net.runelite.api.events.MenuOpened;
 import net.runelite.client.Notifier;
+import net.runelite.client.RuneLite;
 import net.runelite.client.callback.ClientThread;
 import net.runelite.client.config.ConfigManager;
-import net.runelite.client.eventbus.EventBus;
 import net.runelite.client.eventbus.Subscribe;
 import net.runelite.client.events.ClientShutdown;
 import net.runelite.client.events.ConfigChanged;
 import net.runelite.client.game.ItemManager;
 import net.runelite.client.plugins.Plugin;
 import net.runelite.client.plugins.PluginDescriptor;
+import net.runelite.client.ui.overlay.OverlayManager;
 import net.runelite.client.ui.overlay.OverlayMenuEntry;
 import net.runelite.client.ui.overlay.infobox.InfoBox;
 import net.runelite.client.ui.overlay.infobox.InfoBoxManager;
 import net.runelite.client.util.ColorUtil;
 import net.runelite.client.util.Text;
-import org.apache.commons.lang3.ArrayUtils;
 
 @PluginDescriptor(
 	name = "Clue Juggling Timers",
@@ -56,6 +65,8 @@ import org.apache.commons.lang3.ArrayUtils;
 public class ClueScrollJugglingPlugin extends Plugin
 {
 	public static final String CONFIG_GROUP = "cluescrolljuggling";
+	private static final int RESTORE_BATCH_SIZE = 25;
+	private static final Set<String> TIER_TOGGLE_KEYS = ImmutableSet.of("beginnerTimers", "easyTimers", "mediumTimers", "hardTimers", "eliteTimers", "masterTimers");
 
 	@Inject
 	Client client;
@@ -70,7 +81,13 @@ public class ClueScrollJugglingPlugin extends Plugin
 	private InfoBoxManager infoBoxManager;
 
 	@Inject
-	private EventBus eventBus;
+	private OverlayManager overlayManager;
+
+	@Inject
+	private ClueTimerOverlay timerOverlay;
+
+	@Inject
+	private ClueTileOverlay tileOverlay;
 
 	@Inject
 	private ConfigManager configManager;
@@ -80,36 +97,108 @@ public class ClueScrollJugglingPlugin extends Plugin
 
 	@Inject private Gson gson;
 
-	private GroundItemPluginStuff groundItemPluginStuff = new GroundItemPluginStuff(this);
-
-	private List<DroppedClue> droppedClues = new ArrayList<>();
+	@Inject
+	private ScheduledExecutorService executor;
+
+	@Getter(AccessLevel.PACKAGE)
+	private final ClueTable droppedClues = new ClueTable();
+	private final ClueScheduler scheduler = new ClueScheduler(droppedClues);
+	private final ClueClassifier clueClassifier = new ClueClassifier(this::isTrackedItem);
+	private final ClueTierTable clueTiers = new ClueTierTable(itemId -> ClueTier.getClueTier(itemManager.getItemComposition(itemId)));
+	private final WriteBehind clueSaver = new WriteBehind(this::writeDroppedClues);
+	private final ClueCodec clueCodec = new ClueCodec();
+	// Every profile's clues, see ClueStore. null if it couldn't be opened, then clues are saved in the profile config.
+	private final File storeFile;
+	private ClueStore clueStore = null;
+	private long storeProfile = 0;
+	// Saved clues being decoded or moved in after login, null otherwise.
+	private Future<ClueTable> restoring = null;
+	private boolean restoreMigrates = false;
+	private final ClueStats stats = new ClueStats();
 	private InfoBox combinedTimer = null;
+	// Every infobox this plugin has added and not removed, and the clue it's for (null for the combined one).
+	private final Map<InfoBox, DroppedClue> ownedInfoboxes = new IdentityHashMap<>();
 
-	@Data
+	public ClueScrollJugglingPlugin()
+	{
+		this(new File(new File(RuneLite.RUNELITE_DIR, "clue-juggling"), "clues.dat"));
+	}
+
+	/**
+	 * @param storeFile where the {@link ClueStore} is, so the plugin can be run outside the client without touching the
+	 * real one.
+	 */
+	ClueScrollJugglingPlugin(File storeFile)
+	{
+		this.storeFile = storeFile;
+	}
+
+	/**
+	 * A row of {@link ClueTable}. The getters only work while the clue is in the table.
+	 */
 	public static final class DroppedClue
 	{
-		public DroppedClue(Instant startTime, int timeRemaining, GroundItemKey groundItemKey) {
-			this.startTime = startTime;
-			this.timeRemaining = timeRemaining;
-			this.groundItemKey = groundItemKey;
+		final ClueTable table;
+		int slot; // -1 once removed.
+		final int id;
+
+		InfoBox infobox = null; // if it exists
+		String menuOption; // created the first time a menu shows this clue.
+
+		DroppedClue(ClueTable table, int slot, int id) {
+			this.table = table;
+			this.slot = slot;
+			this.id = id;
+		}
+
+		public int getId()
+		{
+			return id;
+		}
+
+		public int getItemId()
+		{
+			return table.itemId(slot);
+		}
+
+		public WorldPoint getLocation()
+		{
+			return GroundItemKey.unpackLocation(table.location(slot));
+		}
+
+		public int getTimeRemaining()
+		{
+			return table.timeRemaining(slot);
 		}
 
-		transient Instant startTime;
-		int timeRemaining;
-		final GroundItemKey groundItemKey;
-		boolean notified = false;
-		transient boolean invalidTimer = false;
+		/**
+		 * Epoch millis, set by ClueScheduler. Not kept up to date when timers count game ticks.
+		 */
+		public long getExpiresAt()
+		{
+			return table.expiresAt(slot);
+		}
 
-		transient InfoBox infobox = null; // if it exists
+		public int getDespawnTick()
+		{
+			return table.despawnTick(slot);
+		}
 
-		public Duration getDuration(int percentageReduction)
+		public boolean isNotified()
 		{
-			return Duration.between(Instant.now(), startTime.plus(Duration.ofSeconds((int) (timeRemaining * (percentageReduction / 100.0)))));
+			return table.isNotified(slot);
 		}
 
-		public boolean isExpired(int percentageReduction)
+		public boolean isInvalidTimer()
 		{
-			return getDuration(percentageReduction).toSeconds() < 0;
+			return table.isInvalidTimer(slot);
+		}
+
+		@Override
+		public String toString()
+		{
+			if (slot == -1) return "DroppedClue(id=" + id + ", removed)";
+			return "DroppedClue(id=" + id + ", itemId=" + getItemId() + ", location=" + getLocation() + ", timeRemaining=" + getTimeRemaining() + ", notified=" + isNotified() + ", invalidTimer=" + isInvalidTimer() + ")";
 		}
 	}
 
@@ -123,43 +212,132 @@ public class ClueScrollJugglingPlugin extends Plugin
 		if (droppedClues.size() > 0) {
 			log.error("droppedClues.size() " + droppedClues.size());
 		}
-		droppedClues = gson.fromJson(configManager.getRSProfileConfiguration(CONFIG_GROUP, "clueData"), new TypeToken<List<DroppedClue>>(){}.getType());
-		if (droppedClues == null) droppedClues = new ArrayList<>();
-		log.debug("|  dropped clues is " + droppedClues.size());
+		droppedClues.clear();
+		scheduler.reschedule(config.dropTimerReduction(), config.notificationTime(), config.tickTimers());
+		storeProfile = clueStore == null ? 0 : ClueStore.profileId(configManager.getRSProfileKey());
+
 		// Unfortunately, varc 526 (play time) is not sent unless the tab that shows it is selected.
-		for (DroppedClue droppedClue : droppedClues)
+		int flags = timesAreAccurate ? 0 : ClueTable.INVALID_TIMER;
+		long now = System.currentTimeMillis();
+		int tickCount = client.getTickCount();
+		ClueTable restored = new ClueTable();
+		if (usingStore()) {
+			try {
+				clueStore.read(storeProfile, restored, now, tickCount, flags);
+			} catch (IOException ex) {
+				log.warn("couldn't read stored clues", ex);
+			}
+		}
+		// With the store, this is only still here if it hasn't been moved into the store yet.
+		String clueData = configManager.getRSProfileConfiguration(CONFIG_GROUP, "clueData");
+		if (clueData != null) {
+			boolean json = ClueCodec.isJson(clueData);
+			restoreMigrates = json || usingStore();
+			restoring = executor.submit(() -> decodeClues(clueData, json, now, tickCount, flags, restored));
+		} else if (!restored.isEmpty()) {
+			restoreMigrates = false;
+			restoring = CompletableFuture.completedFuture(restored);
+		}
+	}
+
+	/**
+	 * Runs on the executor, the result is moved into droppedClues a batch a tick by {@link #restoreBatch}.
+	 *
+	 * @param restored the clues from the store, which the saved ones are added to.
+	 */
+	private ClueTable decodeClues(String clueData, boolean json, long now, int tickCount, int flags, ClueTable restored)
+	{
+		try {
+			if (json) restored.readJson(gson.newJsonReader(new StringReader(clueData)), now, tickCount, flags);
+			else ClueCodec.decode(clueData, restored, now, tickCount, flags);
+		} catch (IOException | IllegalStateException ex) {
+			log.warn("couldn't read saved clues", ex);
+		}
+		return restored;
+	}
+
+	/**
+	 * Moves up to max decoded clues into droppedClues, and adds the infoboxes once the last one is in. Waits for the
+	 * decode if it hasn't finished.
+	 */
+	private void restoreBatch(int max)
+	{
+		ClueTable restored;
+		try {
+			restored = restoring.get();
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			return;
+		} catch (ExecutionException ex) {
+			log.warn("couldn't restore saved clues", ex);
+			restoring = null;
+			return;
+		}
+
+		DroppedClue row;
+		for (int i = 0; i < max && (row = restored.first()) != null; i++)
 		{
-			droppedClue.startTime = Instant.now();
-			if (!timesAreAccurate) droppedClue.invalidTimer = true;
-			addInfobox(droppedClue);
+			DroppedClue droppedClue = droppedClues.addRow(restored, row);
+			int record = restored.record(row.slot);
+			restored.remove(row);
+			if (droppedClue == null) {
+				// tracked since logging in.
+				if (record != -1) clueStore.free(record);
+				continue;
+			}
+			scheduler.schedule(droppedClue, config.dropTimerReduction(), config.notificationTime());
+			if (record == -1) storeClue(droppedClue);
+		}
+		if (restored.isEmpty()) {
+			restoring = null;
+			log.debug("|  restored clues, dropped clues is " + droppedClues.size());
+			addMissingInfoboxes();
+			if (restoreMigrates) {
+				if (usingStore()) configManager.unsetRSProfileConfiguration(CONFIG_GROUP, "clueData");
+				else saveDroppedClues(); // in the new format.
+			}
 		}
 	}
 
 	private void onLogout() {
 		log.debug("logout " + Thread.currentThread().getName());
-		if (droppedClues.isEmpty()) return;
+		// The clues that haven't been restored yet have to be saved too.
+		if (restoring != null) restoreBatch(Integer.MAX_VALUE);
+		if (droppedClues.isEmpty()) {
+			clueSaver.flush();
+			return;
+		}
 
-		for (DroppedClue droppedClue : droppedClues)
-		{
-			droppedClue.timeRemaining -= Duration.between(droppedClue.startTime, Instant.now()).getSeconds();
+		if (scheduler.isTickMode()) droppedClues.settleTimeRemaining(client.getTickCount(), System.currentTimeMillis());
+		else droppedClues.settleTimeRemaining(System.currentTimeMillis());
+		if (usingStore()) {
+			for (DroppedClue droppedClue : droppedClues)
+			{
+				int record = droppedClues.record(droppedClue.slot);
+				if (record != -1) clueStore.setTimeRemaining(record, droppedClue.getTimeRemaining());
+			}
+			clueStore.force();
 		}
 		saveDroppedClues();
+		clueSaver.flush();
 		configManager.setRSProfileConfiguration(CONFIG_GROUP, "timesAreAccurate", true);
 //		configManager.setRSProfileConfiguration(CONFIG_GROUP, "jagexPlayTime", client.getVarcIntValue(526));
 
 		for (DroppedClue droppedClue : droppedClues)
 		{
-			infoBoxManager.removeInfoBox(droppedClue.infobox);
+			removeOwnedInfobox(droppedClue.infobox);
 		}
-		infoBoxManager.removeInfoBox(combinedTimer);
+		removeOwnedInfobox(combinedTimer);
 		combinedTimer = null;
 		droppedClues.clear();
+		scheduler.clear();
 	}
 
 	private int lastGameState = -1;
 	@Subscribe
 	public void onGameStateChanged(GameStateChanged e) {
 		log.debug("game state changed from " + lastGameState + " to " + e.getGameState());
+		if (traceWriter != null) traceWriter.gameState(e.getGameState().getState());
 		if (e.getGameState() == GameState.LOADING) return;
 
 		int LOGGED_IN_STATE = GameState.LOGGED_IN.getState();
@@ -181,14 +359,20 @@ public class ClueScrollJugglingPlugin extends Plugin
 	@Subscribe
 	public void onClientShutdown(ClientShutdown e) {
 //		System.out.println("client shutdown");
+		// The client waits for this before exiting, otherwise it can exit before the clues are saved.
+		CompletableFuture<Void> saved = new CompletableFuture<>();
 		clientThread.invokeLater(() -> {
-			GameStateChanged gameStateChanged = new GameStateChanged();
-			gameStateChanged.setGameState(GameState.LOGIN_SCREEN);
-			this.onGameStateChanged(gameStateChanged);
+			try {
+				GameStateChanged gameStateChanged = new GameStateChanged();
+				gameStateChanged.setGameState(GameState.LOGIN_SCREEN);
+				this.onGameStateChanged(gameStateChanged);
 
-			itemsSpawned.clear();
-			itemsDespawned.clear();
+				itemEvents.clear();
+			} finally {
+				saved.complete(null);
+			}
 		});
+		e.waitFor(saved);
 	}
 
 	@Subscribe
@@ -200,11 +384,11 @@ public class ClueScrollJugglingPlugin extends Plugin
 				if (config.combineTimers()) {
 					for (DroppedClue droppedClue : droppedClues)
 					{
-						infoBoxManager.removeInfoBox(droppedClue.infobox);
+						removeOwnedInfobox(droppedClue.infobox);
 						addInfobox(droppedClue);
 					}
 				} else {
-					infoBoxManager.removeInfoBox(combinedTimer);
+					removeOwnedInfobox(combinedTimer);
 					combinedTimer = null;
 					for (DroppedClue droppedClue : droppedClues)
 					{
@@ -212,34 +396,34 @@ public class ClueScrollJugglingPlugin extends Plugin
 					}
 				}
 			});
+		} else if (e.getKey().equals("overlayTimers")) {
+			clientThread.invokeLater(() -> {
+				if (config.overlayTimers()) {
+					for (DroppedClue droppedClue : droppedClues)
+					{
+						removeOwnedInfobox(droppedClue.infobox);
+					}
+					removeOwnedInfobox(combinedTimer);
+					combinedTimer = null;
+				} else {
+					addMissingInfoboxes();
+				}
+			});
 		} else if (e.getKey().equals("extraItems")) {
 			updateExtraItems();
+		} else if (TIER_TOGGLE_KEYS.contains(e.getKey())) {
+			clientThread.invokeLater(clueClassifier::invalidate);
+		} else if (e.getKey().equals("dropTimerReduction") || e.getKey().equals("notificationTime") || e.getKey().equals("tickTimers")) {
+			clientThread.invokeLater(() -> scheduler.reschedule(config.dropTimerReduction(), config.notificationTime(), config.tickTimers()));
 		}
 	}
 
-	Set<Integer> itemIds = new HashSet<>();
-	List<MatchType> matchTypes = new ArrayList<>();
-	List<String> matchStrings = new ArrayList<>();
+	private volatile ExtraItemMatcher extraItemMatcher = ExtraItemMatcher.EMPTY;
 
 	private void updateExtraItems()
 	{
-		String[] split = config.extraItems().split(",");
-		itemIds.clear();
-		matchTypes.clear();
-		matchStrings.clear();
-		for (String s : split)
-		{
-			s = s.trim();
-			try {
-				int itemId = Integer.parseInt(s);
-				itemIds.add(itemId);
-			} catch (NumberFormatException ex) {
-				MatchType type = MatchType.getType(s);
-				matchTypes.add(type);
-				matchStrings.add(MatchType.prepareMatch(s, type));
-			}
-		}
-//		System.out.println("config changed extra items " + itemIds.size() + " " + matchTypes.size());
+		extraItemMatcher = ExtraItemMatcher.compile(config.extraItems());
+		clientThread.invokeLater(clueClassifier::invalidate);
 	}
 
 	@Provides
@@ -247,80 +431,107 @@ public class ClueScrollJugglingPlugin extends Plugin
 		return configManager.getConfig(ClueScrollJugginglingConfig.class);
 	}
 
+	/**
+	 * Doesn't do anything with the store, where changes are written to the clue's record as they happen.
+	 */
 	private void saveDroppedClues()
 	{
-//		System.out.println("saving clues: " + gson.toJson(droppedClues));
-		configManager.setRSProfileConfiguration(CONFIG_GROUP, "clueData", gson.toJson(droppedClues));
+		if (!usingStore()) clueSaver.markDirty();
 	}
 
-	private DroppedClue getDroppedClue(GroundItemKey groundItemKey)
+	private boolean usingStore()
 	{
-		for (DroppedClue droppedClue : droppedClues)
-		{
-			if (droppedClue.groundItemKey.equals(groundItemKey)) {
-				return droppedClue;
-			}
+		return clueStore != null && storeProfile != 0;
+	}
+
+	private void storeClue(DroppedClue droppedClue)
+	{
+		if (!usingStore()) return;
+		try {
+			int flags = droppedClue.isNotified() ? ClueTable.NOTIFIED : 0;
+			droppedClues.setRecord(droppedClue.slot, clueStore.add(storeProfile, droppedClue.getItemId(), droppedClues.location(droppedClue.slot), droppedClue.getTimeRemaining(), flags));
+		} catch (IOException ex) {
+			log.warn("couldn't store clue", ex);
 		}
-		return null;
+	}
+
+	private void writeDroppedClues()
+	{
+		configManager.setRSProfileConfiguration(CONFIG_GROUP, "clueData", clueCodec.encode(droppedClues));
+		log.debug("saved clues, " + clueSaver.getSavesWritten() + " writes, " + clueSaver.getSavesCoalesced() + " coalesced");
 	}
 
 	private void addInfobox(DroppedClue droppedClue)
 	{
 		removeOrphanedInfoboxes();
+		createInfobox(droppedClue);
+	}
+
+	/**
+	 * One orphan scan for all the clues, instead of one per clue like calling addInfobox for each would.
+	 */
+	private void addMissingInfoboxes()
+	{
+		removeOrphanedInfoboxes();
+		if (config.overlayTimers()) return;
+		for (DroppedClue droppedClue : droppedClues)
+		{
+			if (droppedClue.infobox == null || !ownedInfoboxes.containsKey(droppedClue.infobox)) createInfobox(droppedClue);
+		}
+	}
+
+	private void createInfobox(DroppedClue droppedClue)
+	{
+		if (config.overlayTimers()) return; // ClueTimerOverlay draws them.
 		if (config.combineTimers() && droppedClues.size() > 1) {
 			if (combinedTimer == null) {
 				log.debug("adding combined infobox");
 				for (DroppedClue clue : droppedClues)
 				{
-					infoBoxManager.removeInfoBox(clue.infobox);
+					removeOwnedInfobox(clue.infobox);
 				}
 				combinedTimer = new InfoBox(itemManager.getImage(23814), this) {
+					private final TimerText timerText = new TimerText();
+
 					@Override
 					public Color getTextColor()
 					{
-						for (DroppedClue clue : droppedClues)
-						{
-							if (clue.invalidTimer || clue.notified) return Color.RED;
-						}
-						return Color.WHITE;
+						return droppedClues.hasInvalidTimers() || droppedClues.hasNotified()
+							? Color.RED
+							: Color.WHITE;
 					}
 
 					@Override
 					public String getText() {
-						if (droppedClues.isEmpty()) return "none";
-
-						DroppedClue lowestTimeClue = null;
-						int lowestTime = Integer.MAX_VALUE;
-						for (DroppedClue clue : droppedClues)
-						{
-							if (clue.invalidTimer) return "?";
-							int time = (int) clue.getDuration(config.dropTimerReduction()).getSeconds();
-							if (time < lowestTime) {
-								lowestTime = time;
-								lowestTimeClue = clue;
-							}
-						}
-
-						Duration timeLeft = lowestTimeClue.getDuration(config.dropTimerReduction());
-						long remainingMinutes = timeLeft.toMinutes();
-						return remainingMinutes >= 10
-							? String.format("%dm", remainingMinutes)
-							: formatWithSeconds(timeLeft);
+						long start = System.nanoTime();
+						String text = text();
+						stats.infoboxRender.record(System.nanoTime() - start);
+						return text;
+					}
+
+					private String text() {
+						if (droppedClues.hasInvalidTimers()) return "?";
+						DroppedClue soonest = scheduler.peekExpiry();
+						if (soonest == null) return "none";
+
+						return timerText.get(remainingMillis(soonest));
 					}
 				};
-				infoBoxManager.addInfoBox(combinedTimer);
+				addOwnedInfobox(combinedTimer, null);
 				List<OverlayMenuEntry> menuEntries = combinedTimer.getMenuEntries();
 				menuEntries.add(new OverlayMenuEntry(MenuAction.RUNELITE_OVERLAY, "infobox jank", "clue scroll combined"));
 				combinedTimer.setMenuEntries(menuEntries);
 			}
 		} else {
 			log.debug("adding infobox");
-			InfoBox timer = new InfoBox(itemManager.getImage(droppedClue.groundItemKey.getItemId() == ItemID.CHALLENGE_SCROLL_ELITE ? ItemID.DEERSTALKER : droppedClue.groundItemKey.getItemId()), this)
+			InfoBox timer = new InfoBox(itemManager.getImage(droppedClue.getItemId() == ItemID.CHALLENGE_SCROLL_ELITE ? ItemID.DEERSTALKER : droppedClue.getItemId()), this)
 			{
+				private final TimerText timerText = new TimerText();
+
 				@Override
 				public Color getTextColor()
 				{
-					return droppedClue.invalidTimer || droppedClue.notified
+					return droppedClue.isInvalidTimer() || droppedClue.isNotified()
 						? Color.RED
 						: Color.WHITE;
 				}
@@ -328,74 +539,116 @@ public class ClueScrollJugglingPlugin extends Plugin
 				@Override
 				public String getText()
 				{
-					if (droppedClue.invalidTimer) return "?";
-					Duration timeLeft = droppedClue.getDuration(config.dropTimerReduction());
-					long remainingMinutes = timeLeft.toMinutes();
-					return remainingMinutes >= 10
-						? String.format("%dm", remainingMinutes)
-						: formatWithSeconds(timeLeft);
+					long start = System.nanoTime();
+					String text = text();
+					stats.infoboxRender.record(System.nanoTime() - start);
+					return text;
+				}
+
+				private String text()
+				{
+					if (droppedClue.isInvalidTimer()) return "?";
+					return timerText.get(remainingMillis(droppedClue));
 				}
 			};
-			infoBoxManager.addInfoBox(timer);
+			addOwnedInfobox(timer, droppedClue);
 			List<OverlayMenuEntry> menuEntries = timer.getMenuEntries();
-			menuEntries.add(new OverlayMenuEntry(MenuAction.RUNELITE_OVERLAY, "infobox jank", "" + droppedClue.hashCode()));
+			menuEntries.add(new OverlayMenuEntry(MenuAction.RUNELITE_OVERLAY, "infobox jank", Integer.toString(droppedClue.id)));
 			timer.setMenuEntries(menuEntries);
 			droppedClue.infobox = timer;
 		}
 	}
 
+	/**
+	 * In tick mode this only changes once a tick, which is as precise as the despawn tick is anyway.
+	 */
+	long remainingMillis(DroppedClue droppedClue)
+	{
+		if (scheduler.isTickMode()) return (long) (droppedClue.getDespawnTick() - client.getTickCount()) * Constants.GAME_TICK_LENGTH;
+		return droppedClue.getExpiresAt() - System.currentTimeMillis();
+	}
+
 	@Subscribe
 	public void onMenuOpened(MenuOpened e) {
+		long start = System.nanoTime();
 		MenuEntry[] menuEntries = client.getMenuEntries();
 		for (int i = 0; i < menuEntries.length; i++)
 		{
 			MenuEntry menuEntry = menuEntries[i];
 			if (menuEntry.getType() == MenuAction.RUNELITE_OVERLAY && menuEntry.getOption().equals("infobox jank")) {
+				int appendStart = menuEntries.length;
 				if (menuEntry.getTarget().contains("clue scroll combined"))
 				{
 					menuEntry.setOption("Clue timers");
 					menuEntry.setTarget("(" + droppedClues.size() + ")");
-					for (int i1 = 0; i1 < droppedClues.size(); i1++)
+					int i1 = 0;
+					for (DroppedClue droppedClue : droppedClues)
 					{
-						DroppedClue droppedClue = droppedClues.get(i1);
-						addClueMenuEntries(i, droppedClue, "clue " + i1);
+						appendClueMenuEntries(droppedClue, removeTarget(i1++));
 					}
+					moveAppendedMenuEntries(i, appendStart, false);
 				} else {
-					int hashCode = Integer.parseInt(Text.removeTags(menuEntry.getTarget()));
-					for (DroppedClue droppedClue : droppedClues)
-					{
-						if (droppedClue.hashCode() == hashCode) {
-							addClueMenuEntries(i, droppedClue, "clue");
-							client.setMenuEntries(ArrayUtils.remove(client.getMenuEntries(), i + 2));
-							break;
-						}
+					DroppedClue droppedClue = droppedClues.getById(Integer.parseInt(Text.removeTags(menuEntry.getTarget())));
+					if (droppedClue != null) {
+						appendClueMenuEntries(droppedClue, "clue");
+						moveAppendedMenuEntries(i, appendStart, true);
 					}
 				}
 				break;
 			}
 		}
+		stats.onMenuOpened.record(System.nanoTime() - start);
 	}
 
-	private void addClueMenuEntries(int index, DroppedClue droppedClue, String target)
+	/**
+	 * Appending is cheap, inserting in the middle shifts the whole menu every time, so entries are appended and then
+	 * moved to where they belong in one pass.
+	 */
+	private void appendClueMenuEntries(DroppedClue droppedClue, String target)
 	{
-		ItemComposition itemComposition = itemManager.getItemComposition(droppedClue.groundItemKey.getItemId());
-		ClueTier clueTier = ClueTier.getClueTier(itemComposition);
-		String name = clueTier != null ? clueTier.getColoredName() : itemComposition.getMembersName();
-		client.createMenuEntry(index).setOption("| " + name).setTarget(droppedClue.invalidTimer ? "?" : formatWithSeconds(droppedClue.getDuration(config.dropTimerReduction())));
-		client.createMenuEntry(index).setOption("|     Remove").setTarget(target).onClick(e1 -> {
+		if (droppedClue.menuOption == null) droppedClue.menuOption = "| " + clueName(droppedClue);
+		client.createMenuEntry(-1).setOption(droppedClue.menuOption).setTarget(droppedClue.isInvalidTimer() ? "?" : TimerText.formatWithSeconds(remainingMillis(droppedClue)));
+		client.createMenuEntry(-1).setOption("|     Remove").setTarget(target).onClick(e1 -> {
 			log.debug("manual infobox removal " + droppedClue);
 			removeClue(droppedClue);
 		});
-//		client.createMenuEntry(i).setOption("   ").setTarget(droppedClue.groundItemKey.getLocation().toString());
+//		client.createMenuEntry(-1).setOption("   ").setTarget(droppedClue.getLocation().toString());
 	}
 
-	private String formatWithSeconds(Duration timeLeft) {
-		int seconds = (int) (timeLeft.toMillis() / 1000L);
+	private String clueName(DroppedClue droppedClue)
+	{
+		ClueTier clueTier = clueTiers.get(droppedClue.getItemId());
+		return clueTier != null ? clueTier.getColoredName() : itemManager.getItemComposition(droppedClue.getItemId()).getMembersName();
+	}
 
-		int minutes = (seconds % 3600) / 60;
-		int secs = seconds % 60;
+	/**
+	 * Moves the entries appended since appendStart to just below the infobox's own entry at index, reversed so they
+	 * read top to bottom in the order they were appended.
+	 */
+	private void moveAppendedMenuEntries(int index, int appendStart, boolean removeInfoboxEntry)
+	{
+		MenuEntry[] entries = client.getMenuEntries();
+		int appended = entries.length - appendStart;
+		int skip = removeInfoboxEntry ? 1 : 0;
+		MenuEntry[] result = new MenuEntry[entries.length - skip];
+		System.arraycopy(entries, 0, result, 0, index);
+		for (int j = 0; j < appended; j++)
+		{
+			result[index + j] = entries[entries.length - 1 - j];
+		}
+		System.arraycopy(entries, index + skip, result, index + appended, appendStart - index - skip);
+		client.setMenuEntries(result);
+	}
 
-		return String.format("%d:%02d", minutes, secs);
+	private String[] removeTargets = new String[0];
+
+	private String removeTarget(int i)
+	{
+		if (i >= removeTargets.length) {
+			removeTargets = Arrays.copyOf(removeTargets, Math.max(i + 1, removeTargets.length * 2));
+		}
+		if (removeTargets[i] == null) removeTargets[i] = "clue " + i;
+		return removeTargets[i];
 	}
 
 	private boolean showNotifications() {
@@ -405,181 +658,299 @@ public class ClueScrollJugglingPlugin extends Plugin
 	@Subscribe
 	public void onItemSpawned(ItemSpawned itemSpawned)
 	{
+		long start = System.nanoTime();
+		stats.spawnsSeen++;
 		TileItem item = itemSpawned.getItem();
-		ItemComposition itemComposition = itemManager.getItemComposition(item.getId());
-		if (!isExtraItemMatched(itemComposition)) {
-			ClueTier clueTier = ClueTier.getClueTier(itemComposition);
-			if (clueTier == null || !clueTier.showTimers(config)) return;
+		if (traceWriter != null) {
+			if (!traceWriter.isNamed(item.getId())) traceWriter.itemName(item.getId(), itemManager.getItemComposition(item.getId()).getMembersName());
+			traceWriter.spawn(item.getId(), GroundItemKey.packLocation(itemSpawned.getTile().getWorldLocation()), item.getDespawnTime());
 		}
+		if (clueClassifier.shouldTrack(item.getId())) {
+			int location = GroundItemKey.packLocation(itemSpawned.getTile().getWorldLocation());
+			if (!itemEvents.offer(ItemEventRing.SPAWN, item.getId(), location, item.getDespawnTime())) stats.eventsDropped++;
+		} else {
+			stats.spawnsFiltered++;
+		}
+		stats.onItemSpawned.record(System.nanoTime() - start);
+	}
 
-		GroundItem groundItem = groundItemPluginStuff.buildGroundItem(itemSpawned.getTile(), item);
-		itemsSpawned.add(groundItem);
-		gameTick = client.getTickCount();
+	boolean isTrackedItem(int itemId)
+	{
+		ClueTier clueTier = clueTiers.get(itemId);
+		if (clueTier != null && clueTier.showTimers(config)) return true;
+		return isExtraItemMatched(itemId);
 	}
 
-	private boolean isExtraItemMatched(ItemComposition itemComposition)
+	private boolean isExtraItemMatched(int itemId)
 	{
-		if (itemIds.contains(itemComposition.getId())) {
+		ExtraItemMatcher matcher = extraItemMatcher;
+		if (matcher.matchesId(itemId)) {
 			return true;
 		}
-		String membersName = Text.standardize(itemComposition.getMembersName().toLowerCase());
-		for (int i = 0; i < matchTypes.size(); i++)
-		{
-			MatchType matchType = matchTypes.get(i);
-			String matchString = matchStrings.get(i);
-			if (matchType.matches(membersName, matchString)) {
-				return true;
-			}
-		}
-		return false;
+		return matcher.hasNameRules() && matcher.matchesName(Text.standardize(itemManager.getItemComposition(itemId).getMembersName().toLowerCase()));
 	}
 
 	@Subscribe
 	public void onItemDespawned(ItemDespawned itemDespawned)
 	{
+		long start = System.nanoTime();
+		stats.despawnsSeen++;
 		TileItem item = itemDespawned.getItem();
-		ItemComposition itemComposition = itemManager.getItemComposition(item.getId());
+		int location = GroundItemKey.packLocation(itemDespawned.getTile().getWorldLocation());
+		if (traceWriter != null) traceWriter.despawn(item.getId(), location);
 
-		GroundItemKey groundItemKey = new GroundItemKey(item.getId(), itemDespawned.getTile().getWorldLocation());
-		itemsDespawned.add(groundItemKey);
-		gameTick = client.getTickCount();
+		if (!itemEvents.offer(ItemEventRing.DESPAWN, item.getId(), location, 0)) stats.eventsDropped++;
+		stats.onItemDespawned.record(System.nanoTime() - start);
+	}
+
+	private int changeDepth = 0;
+	private boolean changedInBatch = false;
+
+	/**
+	 * Clues added with {@link #clueAdded} and removed with {@link #removeClue} until the matching
+	 * {@link #commitClueChanges} only go into the table, store and scheduler. The clues are saved and the infoboxes
+	 * brought up to date once, at the commit. Batches can nest, the outermost commit is the one that does anything.
+	 */
+	private void beginClueChanges()
+	{
+		changeDepth++;
+	}
+
+	private void commitClueChanges()
+	{
+		if (--changeDepth > 0 || !changedInBatch) return;
+		changedInBatch = false;
+		saveDroppedClues();
+		addMissingInfoboxes();
+	}
+
+	/**
+	 * For a clue that was just added to droppedClues and scheduled.
+	 */
+	private void clueAdded(DroppedClue droppedClue)
+	{
+		storeClue(droppedClue);
+		if (changeDepth > 0) {
+			changedInBatch = true;
+			return;
+		}
+		saveDroppedClues();
+		addInfobox(droppedClue);
 	}
 
 	private void removeClue(DroppedClue droppedClue)
 	{
+		if (usingStore() && droppedClues.contains(droppedClue)) {
+			int record = droppedClues.record(droppedClue.slot);
+			if (record != -1) clueStore.free(record);
+		}
 		boolean removed = droppedClues.remove(droppedClue);
 		log.debug("removed clue " + removed + " " + droppedClues.size());
-		saveDroppedClues();
 		if (droppedClue.infobox != null) {
-			infoBoxManager.removeInfoBox(droppedClue.infobox);
+			removeOwnedInfobox(droppedClue.infobox);
 			log.debug("|  removed infobox");
 		}
-		if (combinedTimer != null && droppedClues.size() <= 1)
-		{
-			infoBoxManager.removeInfoBox(combinedTimer);
-			log.debug("|  removed combined infobox");
-			combinedTimer = null;
-			if (droppedClues.size() == 1) {
-				addInfobox(droppedClues.get(0));
-			}
+		if (changeDepth > 0) {
+			changedInBatch = true;
+			return;
 		}
+		saveDroppedClues();
+		// takes the combined infobox down if there's only one clue left, and gives that clue its own.
+		addMissingInfoboxes();
+	}
 
-		removeOrphanedInfoboxes();
+	private void addOwnedInfobox(InfoBox infoBox, DroppedClue droppedClue)
+	{
+		ownedInfoboxes.put(infoBox, droppedClue);
+		infoBoxManager.addInfoBox(infoBox);
+	}
+
+	private void removeOwnedInfobox(InfoBox infoBox)
+	{
+		if (infoBox == null) return;
+		ownedInfoboxes.remove(infoBox);
+		infoBoxManager.removeInfoBox(infoBox);
 	}
 
 	private void removeOrphanedInfoboxes()
 	{
-		next_infobox:
-		for (InfoBox infoBox : infoBoxManager.getInfoBoxes()) {
-			if (infoBox.getClass().getName().contains("ClueScrollJugglingPlugin")) {
-				if (infoBox == combinedTimer) continue next_infobox;
-				if (combinedTimer == null) {
-					for (DroppedClue droppedClue : droppedClues) {
-						if (infoBox == droppedClue.infobox) continue next_infobox;
-					}
-				}
-				infoBoxManager.removeInfoBox(infoBox);
-				log.error("removed orphaned infobox");
-			}
+		Iterator<Map.Entry<InfoBox, DroppedClue>> iterator = ownedInfoboxes.entrySet().iterator();
+		while (iterator.hasNext())
+		{
+			Map.Entry<InfoBox, DroppedClue> entry = iterator.next();
+			InfoBox infoBox = entry.getKey();
+			if (infoBox == combinedTimer) continue;
+			DroppedClue droppedClue = entry.getValue();
+			if (combinedTimer == null && droppedClue != null && droppedClue.infobox == infoBox && droppedClues.contains(droppedClue)) continue;
+
+			iterator.remove();
+			infoBoxManager.removeInfoBox(infoBox);
+			log.error("removed orphaned infobox");
 		}
 		if (droppedClues.size() <= 1) {
-			infoBoxManager.removeInfoBox(combinedTimer);
+			removeOwnedInfobox(combinedTimer);
 			combinedTimer = null;
 		}
 	}
 
 	@Subscribe
 	public void onGameTick(GameTick e) {
-		if (client.getTickCount() == gameTick) {
+		long start = System.nanoTime();
+		if (traceWriter != null) {
+			// before the tick, since the tick is when the despawns are checked against the scene.
+			traceWriter.scene(client.getBaseX(), client.getBaseY());
+			traceWriter.tick(client.getTickCount());
+			if (traceWriter.getError() != null) stopTrace();
+		}
+
+		if (restoring != null && restoring.isDone()) restoreBatch(RESTORE_BATCH_SIZE);
+
+		// The events wait in the ring while the saved clues are still being decoded, since they have to be matched
+		// against those too. That's a tick or so after login.
+		if (itemEvents.size() > 0 && (restoring == null || restoring.isDone())) {
+			long handleStart = System.nanoTime();
 			handleItemSpawns();
+			stats.handleItemSpawns.record(System.nanoTime() - handleStart);
 		}
 
 		if (!droppedClues.isEmpty()) {
-			int dropTime = config.dropTimerReduction();
+			long now = scheduler.isTickMode() ? client.getTickCount() : System.currentTimeMillis();
 			if (showNotifications())
 			{
-				for (DroppedClue droppedClue : droppedClues)
+				DroppedClue droppedClue;
+				while ((droppedClue = scheduler.pollNotification(now)) != null)
 				{
-					if (!droppedClue.notified && droppedClue.getDuration(dropTime).compareTo(Duration.ofSeconds(config.notificationTime())) < 0)
-					{
-						notifier.notify("Your clue scroll is about to disappear!");
-						droppedClue.notified = true;
-					}
-				}
-			}
-			List<DroppedClue> toRemove = new ArrayList<>();
-			for (int i = 0; i < droppedClues.size(); i++)
-			{
-				DroppedClue droppedClue = droppedClues.get(i);
-				if (droppedClue.isExpired(dropTime)) {
-					toRemove.add(droppedClue);
+					notifier.notify("Your clue scroll is about to disappear!");
+					droppedClues.setNotified(droppedClue);
+					int record = droppedClues.record(droppedClue.slot);
+					if (usingStore() && record != -1) clueStore.setFlags(record, ClueTable.NOTIFIED);
 				}
 			}
-			for (DroppedClue droppedClue : toRemove)
+			int removed = 0;
+			DroppedClue droppedClue;
+			beginClueChanges();
+			while ((droppedClue = scheduler.pollExpired(now)) != null)
 			{
 				log.debug("removing infobox due to expiry");
 				removeClue(droppedClue);
+				removed++;
 			}
-			if (toRemove.size() > 0) log.debug("removed " + toRemove.size());
-			toRemove.clear();
+			commitClueChanges();
+			if (removed > 0) log.debug("removed " + removed);
 		}
+
+		// A save in the middle of a restore would leave out the clues that aren't in yet.
+		if (restoring == null) clueSaver.flushIfDue(System.currentTimeMillis(), config.saveInterval() * 1000L);
+		stats.onGameTick.record(System.nanoTime() - start);
 	}
 
-	private int gameTick = -1;
-	private final List<GroundItem> itemsSpawned = new ArrayList<>();
-	private final List<GroundItemKey> itemsDespawned = new ArrayList<>();
+	// Everything that happens in a tick goes in here, it just has to hold one tick's events.
+	private final ItemEventRing itemEvents = new ItemEventRing(8192);
+	private final SpawnReconciler spawnReconciler = new SpawnReconciler();
 
 	private void handleItemSpawns()
 	{
 		// It is possible for fake despawns to happen when you go up and down ladders or go near an item (like 20 tiles or so?). This is detectable by a despawn followed by a spawn. I want to skip these fake despawns.
-		outer:
-		for (GroundItemKey groundItemKey : itemsDespawned)
+		spawnReconciler.reconcile(itemEvents);
+		ClueTable staged = stagedClues();
+		beginClueChanges();
+		int tickCount = client.getTickCount();
+		int baseX = client.getBaseX();
+		int baseY = client.getBaseY();
+		for (int i = 0; i < spawnReconciler.despawnCount(); i++)
 		{
+			int itemId = spawnReconciler.despawnItemId(i);
+			int location = spawnReconciler.despawnLocation(i);
 			// Check if it's a real despawn by seeing if there is a spawn event in the same tick.
-			int itemId = groundItemKey.getItemId();
-			for (int i = 0; i < itemsSpawned.size(); i++)
-			{
-				GroundItem groundItem = itemsSpawned.get(i);
-				if (groundItem.getId() == itemId && groundItem.getLocation().equals(groundItemKey.getLocation())) {
-					log.debug(client.getTickCount() + " item despawned (fake) " + itemId + " " + itemManager.getItemComposition(itemId).getMembersName());
-					itemsSpawned.remove(i);
-					continue outer;
-				}
+			if (spawnReconciler.isFakeDespawn(i)) {
+				stats.fakeDespawns++;
+				log.debug(tickCount + " item despawned (fake) " + itemId + " " + debugItemName(itemId));
+				continue;
+			}
+			// Items in a scene that isn't loaded anymore haven't despawned, they're just not loaded.
+			int x = location & 0x7FFF;
+			int y = (location >>> 15) & 0x7FFF;
+			if (x < baseX || x >= baseX + Constants.SCENE_SIZE || y < baseY || y >= baseY + Constants.SCENE_SIZE) {
+				log.debug(tickCount + " item despawned (outside the scene) " + itemId);
+				continue;
 			}
 
 			// This is a real despawn.
-			DroppedClue droppedClue = getDroppedClue(groundItemKey);
-			log.debug(client.getTickCount() + " item despawned " + itemId + " " + itemManager.getItemComposition(itemId).getMembersName() + " " + (droppedClue != null));
+			long key = GroundItemKey.pack(itemId, location);
+			DroppedClue droppedClue = droppedClues.get(key);
+			log.debug(tickCount + " item despawned " + itemId + " " + debugItemName(itemId) + " " + (droppedClue != null));
 			if (droppedClue != null) {
 				removeClue(droppedClue);
+			} else if (staged != null && (droppedClue = staged.get(key)) != null) {
+				// saved, but not moved in yet. It mustn't come back when it is.
+				int record = staged.record(droppedClue.slot);
+				if (record != -1) clueStore.free(record);
+				staged.remove(droppedClue);
 			}
 		}
-		for (GroundItem groundItem : itemsSpawned)
+		for (int i = 0; i < spawnReconciler.spawnCount(); i++)
 		{
-			GroundItemKey groundItemKey = new GroundItemKey(groundItem.getId(), groundItem.getLocation());
-			if (getDroppedClue(groundItemKey) == null) {
-				Instant instant = groundItemPluginStuff.calculateDespawnTime(groundItem);
-				if (instant == null) {
-					log.debug("spawned item (null instant) " + groundItemKey.getItemId() + " " + itemManager.getItemComposition(groundItemKey.getItemId()).getMembersName());
+			if (spawnReconciler.isCancelledSpawn(i)) continue;
+
+			int itemId = spawnReconciler.spawnItemId(i);
+			int location = spawnReconciler.spawnLocation(i);
+			long key = GroundItemKey.pack(itemId, location);
+			if (staged != null && staged.get(key) != null) {
+				// saved, the next restore batch brings it in with its saved timer.
+				log.debug("spawned item (restoring) " + itemId + " " + debugItemName(itemId));
+			} else if (droppedClues.get(key) == null) {
+				int despawnTick = spawnReconciler.spawnDespawnTick(i);
+				if (despawnTick < tickCount) {
+					// that's weird
+					log.debug("spawned item (already despawned) " + itemId + " " + debugItemName(itemId));
 					continue;
 				}
-				Duration between = Duration.between(Instant.now(), instant);
-				DroppedClue droppedClue = new DroppedClue(Instant.now(), (int) between.getSeconds(), groundItemKey);
-				droppedClues.add(droppedClue);
-				saveDroppedClues();
-				log.debug("adding infobox from spawned item " + groundItemKey.getItemId() + " " + itemManager.getItemComposition(groundItemKey.getItemId()).getMembersName());
-				addInfobox(droppedClue);
+				int timeRemaining = (int) ((long) (despawnTick - tickCount) * Constants.GAME_TICK_LENGTH / 1000);
+				DroppedClue droppedClue = droppedClues.add(itemId, location, System.currentTimeMillis(), timeRemaining, despawnTick, 0);
+				scheduler.schedule(droppedClue, config.dropTimerReduction(), config.notificationTime());
+				log.debug("adding infobox from spawned item " + itemId + " " + debugItemName(itemId));
+				clueAdded(droppedClue);
 			} else {
-				log.debug("spawned item (already tracked) " + groundItemKey.getItemId() + " " + itemManager.getItemComposition(groundItemKey.getItemId()).getMembersName());
+				log.debug("spawned item (already tracked) " + itemId + " " + debugItemName(itemId));
 			}
 		}
-		itemsSpawned.clear();
-		itemsDespawned.clear();
+		commitClueChanges();
+	}
+
+	/**
+	 * @return the saved clues that haven't been moved into droppedClues yet, or null if there aren't any or they're still
+	 * being decoded.
+	 */
+	private ClueTable stagedClues()
+	{
+		if (restoring == null || !restoring.isDone()) return null;
+		try {
+			return restoring.get();
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			return null;
+		} catch (ExecutionException ex) {
+			return null; // restoreBatch logs it.
+		}
+	}
+
+	/**
+	 * The item's name, but only if it's going to be logged. Looking up the composition for every spawn just to throw
+	 * the string away isn't free.
+	 */
+	private String debugItemName(int itemId)
+	{
+		return log.isDebugEnabled() ? itemManager.getItemComposition(itemId).getMembersName() : "";
 	}
 
 	@Override
 	protected void startUp()
 	{
+		try {
+			clueStore = ClueStore.open(storeFile);
+		} catch (IOException ex) {
+			log.warn("couldn't open the clue store, saving clues in the config instead", ex);
+		}
 		lastGameState = -1;
 		updateExtraItems();
 		clientThread.invokeLater(() -> {
@@ -588,7 +959,8 @@ public class ClueScrollJugglingPlugin extends Plugin
 			gameStateChanged.setGameState(client.getGameState());
 			this.onGameStateChanged(gameStateChanged);
 		});
-		eventBus.register(groundItemPluginStuff);
+		overlayManager.add(timerOverlay);
+		overlayManager.add(tileOverlay);
 	}
 
 	@Override
@@ -597,8 +969,18 @@ public class ClueScrollJugglingPlugin extends Plugin
 		clientThread.invokeLater(() -> {
 			onLogout();
 			configManager.setRSProfileConfiguration(CONFIG_GROUP, "timesAreAccurate", false);
+			if (traceWriter != null) stopTrace();
+			if (clueStore != null) {
+				try {
+					clueStore.close();
+				} catch (IOException ex) {
+					log.warn("couldn't close the clue store", ex);
+				}
+				clueStore = null;
+			}
 		});
-		eventBus.unregister(groundItemPluginStuff);
+		overlayManager.remove(timerOverlay);
+		overlayManager.remove(tileOverlay);
 	}
 
 	@RequiredArgsConstructor
@@ -644,11 +1026,87 @@ public class ClueScrollJugglingPlugin extends Plugin
 	public void onCommandExecuted(CommandExecuted e) {
 		if (e.getCommand().equals("clearclues")) {
 			log.warn("clearclues");
-			for (DroppedClue droppedClue : new ArrayList<>(droppedClues))
+			beginClueChanges();
+			for (DroppedClue droppedClue : droppedClues)
 			{
 				removeClue(droppedClue);
 			}
-			removeOrphanedInfoboxes();
+			commitClueChanges();
+		} else if (e.getCommand().equals("cluestats")) {
+			if (e.getArguments().length > 0 && e.getArguments()[0].equals("reset")) {
+				stats.reset();
+				clueSaver.resetCounts();
+				client.addChatMessage(ChatMessageType.GAMEMESSAGE, "", "Clue stats reset.", null);
+			} else {
+				for (String line : getStatsSummary())
+				{
+					client.addChatMessage(ChatMessageType.GAMEMESSAGE, "", line, null);
+				}
+			}
+		} else if (e.getCommand().equals("cluetrace")) {
+			if (traceWriter == null) startTrace();
+			else stopTrace();
+		} else if (e.getCommand().equals("cluesnearby")) {
+			listNearbyClues(e.getArguments());
+		}
+	}
+
+	private void listNearbyClues(String[] arguments)
+	{
+		int radius;
+		try {
+			radius = arguments.length > 0 ? Integer.parseInt(arguments[0]) : 20;
+		} catch (NumberFormatException ex) {
+			client.addChatMessage(ChatMessageType.GAMEMESSAGE, "", "Usage: ::cluesnearby [tiles]", null);
+			return;
+		}
+		if (client.getLocalPlayer() == null) return;
+		// Past the scene there's nothing to see anyway, and a huge radius would overflow the area's edges.
+		radius = Math.max(0, Math.min(radius, Constants.SCENE_SIZE));
+
+		WorldPoint player = client.getLocalPlayer().getWorldLocation();
+		List<DroppedClue> nearby = droppedClues.within(player.getX(), player.getY(), player.getPlane(), radius);
+		client.addChatMessage(ChatMessageType.GAMEMESSAGE, "", nearby.size() + " clues within " + radius + " tiles.", null);
+		for (DroppedClue droppedClue : nearby)
+		{
+			String timeLeft = droppedClue.isInvalidTimer() ? "?" : TimerText.formatWithSeconds(remainingMillis(droppedClue));
+			client.addChatMessage(ChatMessageType.GAMEMESSAGE, "", clueName(droppedClue) + " " + player.distanceTo(droppedClue.getLocation()) + " tiles away, " + timeLeft, null);
+		}
+	}
+
+	List<String> getStatsSummary()
+	{
+		return stats.summary(clueSaver);
+	}
+
+	private EventTraceWriter traceWriter = null;
+
+	private void startTrace()
+	{
+		File file = new File(new File(RuneLite.RUNELITE_DIR, "clue-juggling-traces"), System.currentTimeMillis() + ".trace");
+		try {
+			traceWriter = new EventTraceWriter(file, client.getTickCount());
+		} catch (IOException ex) {
+			log.warn("couldn't start clue trace", ex);
+			return;
+		}
+		client.addChatMessage(ChatMessageType.GAMEMESSAGE, "", "Recording clue trace to " + file + ". Use ::cluetrace again to stop.", null);
+	}
+
+	private void stopTrace()
+	{
+		EventTraceWriter writer = traceWriter;
+		traceWriter = null;
+		try {
+			writer.close();
+		} catch (IOException ex) {
+			log.warn("couldn't close clue trace", ex);
+		}
+		if (writer.getError() != null) {
+			log.warn("clue trace failed", writer.getError());
+			client.addChatMessage(ChatMessageType.GAMEMESSAGE, "", "Clue trace failed: " + writer.getError().getMessage(), null);
+		} else {
+			client.addChatMessage(ChatMessageType.GAMEMESSAGE, "", "Saved clue trace to " + writer.getFile(), null);
 		}
 	}
 }
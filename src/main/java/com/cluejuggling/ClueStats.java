@@ -0,0 +1,53 @@
+package com.cluejuggling;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * How much client thread time the plugin is using, for ::cluestats. Counters and histograms are preallocated, so
+ * recording doesn't allocate. Client thread only.
+ */
+class ClueStats
+{
+	final LatencyHistogram onItemSpawned = new LatencyHistogram();
+	final LatencyHistogram onItemDespawned = new LatencyHistogram();
+	final LatencyHistogram onGameTick = new LatencyHistogram();
+	final LatencyHistogram handleItemSpawns = new LatencyHistogram();
+	final LatencyHistogram onMenuOpened = new LatencyHistogram();
+	final LatencyHistogram infoboxRender = new LatencyHistogram();
+
+	long spawnsSeen = 0;
+	long spawnsFiltered = 0;
+	long despawnsSeen = 0;
+	long fakeDespawns = 0;
+	long eventsDropped = 0;
+
+	void reset()
+	{
+		onItemSpawned.reset();
+		onItemDespawned.reset();
+		onGameTick.reset();
+		handleItemSpawns.reset();
+		onMenuOpened.reset();
+		infoboxRender.reset();
+		spawnsSeen = 0;
+		spawnsFiltered = 0;
+		despawnsSeen = 0;
+		fakeDespawns = 0;
+		eventsDropped = 0;
+	}
+
+	List<String> summary(WriteBehind saves)
+	{
+		List<String> lines = new ArrayList<>();
+		lines.add("onItemSpawned " + onItemSpawned);
+		lines.add("onItemDespawned " + onItemDespawned);
+		lines.add("onGameTick " + onGameTick);
+		lines.add("handleItemSpawns " + handleItemSpawns);
+		lines.add("onMenuOpened " + onMenuOpened);
+		lines.add("infobox render " + infoboxRender);
+		lines.add("spawns " + spawnsSeen + " (" + spawnsFiltered + " filtered), despawns " + despawnsSeen + " (" + fakeDespawns + " fake), " + eventsDropped + " events dropped (queue full)");
+		lines.add("saves " + saves.getSavesWritten() + " written, " + saves.getSavesCoalesced() + " coalesced");
+		return lines;
+	}
+}
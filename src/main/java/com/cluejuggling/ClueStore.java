@@ -0,0 +1,184 @@
+package com.cluejuggling;
+
+import com.cluejuggling.ClueScrollJugglingPlugin.DroppedClue;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Every RS profile's clues, in a memory mapped file of fixed size records. Adding, removing or changing a clue writes
+ * just its record, and reading a profile's clues is reading ints out of the mapping.
+ *
+ * Header: magic, version, record capacity, 4 unused bytes. Record: profile id (0 for a free record), item id, packed
+ * location, seconds remaining and flags. The seconds are written when the clue is added and when the player logs out,
+ * like the config saves were.
+ *
+ * Several clients can have the file open at once, so finding a free record and growing the file are done holding a
+ * lock on the whole file, and the mapping is redone when another client has grown it.
+ */
+class ClueStore implements AutoCloseable
+{
+	private static final int MAGIC = 0x434A5453; // CJTS
+	private static final int VERSION = 1;
+	private static final int HEADER_BYTES = 16;
+	private static final int RECORD_BYTES = 24;
+	private static final int INITIAL_CAPACITY = 256;
+
+	private static final int PROFILE = 0;
+	private static final int ITEM_ID = 8;
+	private static final int LOCATION = 12;
+	private static final int TIME_REMAINING = 16;
+	private static final int FLAGS = 20;
+
+	private final RandomAccessFile file;
+	private final FileChannel channel;
+	private MappedByteBuffer buffer;
+	private int capacity;
+
+	private ClueStore(RandomAccessFile file) throws IOException
+	{
+		this.file = file;
+		channel = file.getChannel();
+		try (FileLock lock = channel.lock()) {
+			if (channel.size() < HEADER_BYTES) {
+				map(INITIAL_CAPACITY);
+				buffer.putInt(0, MAGIC);
+				buffer.putInt(4, VERSION);
+				buffer.putInt(8, INITIAL_CAPACITY);
+			} else {
+				map(0);
+				if (buffer.getInt(0) != MAGIC) throw new IOException("not a clue store");
+				if (buffer.getInt(4) != VERSION) throw new IOException("unsupported clue store version " + buffer.getInt(4));
+				remapIfGrown();
+			}
+		}
+	}
+
+	static ClueStore open(File file) throws IOException
+	{
+		file.getParentFile().mkdirs();
+		RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+		try {
+			return new ClueStore(randomAccessFile);
+		} catch (IOException | RuntimeException e) {
+			randomAccessFile.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * @return 0 if there's no profile, which means the store shouldn't be used.
+	 */
+	static long profileId(String rsProfileKey)
+	{
+		if (rsProfileKey == null) return 0;
+		// FNV-1a
+		long hash = 0xcbf29ce484222325L;
+		for (byte b : rsProfileKey.getBytes(StandardCharsets.UTF_8))
+		{
+			hash = (hash ^ (b & 0xFF)) * 0x100000001b3L;
+		}
+		return hash == 0 ? 1 : hash;
+	}
+
+	/**
+	 * Adds the profile's clues to the table with {@link ClueTable#restore}, and sets their records.
+	 */
+	void read(long profile, ClueTable table, long now, int tickCount, int flags) throws IOException
+	{
+		remapIfGrown();
+		for (int record = 0; record < capacity; record++)
+		{
+			int offset = offset(record);
+			if (buffer.getLong(offset + PROFILE) != profile) continue;
+			int savedFlags = buffer.getInt(offset + FLAGS) & ClueTable.NOTIFIED;
+			DroppedClue clue = table.restore(buffer.getInt(offset + ITEM_ID), buffer.getInt(offset + LOCATION), buffer.getInt(offset + TIME_REMAINING), now, tickCount, flags | savedFlags);
+			if (clue != null) table.setRecord(clue.slot, record);
+			else free(record); // the same clue twice, which shouldn't happen.
+		}
+	}
+
+	/**
+	 * @return the clue's record.
+	 */
+	int add(long profile, int itemId, int location, int timeRemaining, int flags) throws IOException
+	{
+		try (FileLock lock = channel.lock()) {
+			remapIfGrown();
+			int record = 0;
+			while (record < capacity && buffer.getLong(offset(record) + PROFILE) != 0)
+			{
+				record++;
+			}
+			if (record == capacity) {
+				map(capacity * 2);
+				buffer.putInt(8, capacity);
+			}
+			int offset = offset(record);
+			buffer.putInt(offset + ITEM_ID, itemId);
+			buffer.putInt(offset + LOCATION, location);
+			buffer.putInt(offset + TIME_REMAINING, timeRemaining);
+			buffer.putInt(offset + FLAGS, flags & ClueTable.NOTIFIED);
+			buffer.putLong(offset + PROFILE, profile); // last, so a reader never sees a half written record.
+			return record;
+		}
+	}
+
+	void setTimeRemaining(int record, int timeRemaining)
+	{
+		buffer.putInt(offset(record) + TIME_REMAINING, timeRemaining);
+	}
+
+	void setFlags(int record, int flags)
+	{
+		buffer.putInt(offset(record) + FLAGS, flags & ClueTable.NOTIFIED);
+	}
+
+	void free(int record)
+	{
+		buffer.putLong(offset(record) + PROFILE, 0);
+	}
+
+	/**
+	 * Makes sure the writes so far are on disk, for logout and shutdown. They're in the page cache right away either
+	 * way, so this is only about the os or machine going down.
+	 */
+	void force()
+	{
+		buffer.force();
+	}
+
+	@Override
+	public void close() throws IOException
+	{
+		force();
+		file.close();
+	}
+
+	private static int offset(int record)
+	{
+		return HEADER_BYTES + record * RECORD_BYTES;
+	}
+
+	/**
+	 * @param capacity 0 for the capacity in the header.
+	 */
+	private void map(int capacity) throws IOException
+	{
+		if (capacity == 0) {
+			MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES);
+			capacity = header.getInt(8);
+		}
+		buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, offset(capacity));
+		this.capacity = capacity;
+	}
+
+	private void remapIfGrown() throws IOException
+	{
+		if (buffer.getInt(8) > capacity) map(0);
+	}
+}
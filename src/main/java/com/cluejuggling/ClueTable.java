@@ -0,0 +1,562 @@
+package com.cluejuggling;
+
+import com.cluejuggling.ClueScrollJugglingPlugin.DroppedClue;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.IntConsumer;
+import net.runelite.api.Constants;
+
+/**
+ * The clues we're tracking, stored as one primitive array per field. Scans over every clue (rescheduling, saving,
+ * logging out) walk a few flat arrays instead of following a pointer to an object per clue, and a {@link DroppedClue}
+ * is only a view of one row, which is valid while its clue is in the table.
+ *
+ * Lookup, add and remove are O(1) by packed item id + location. Removed rows go on a free list and get reused.
+ * Iteration is in the order the clues were added, which is the order the infoboxes and menus show them in.
+ *
+ * Each clue gets an id when it's added that is never reused, which the infobox menus and {@link ClueScheduler} use to
+ * find it.
+ *
+ * Clues are also indexed by location: each 8x8 chunk (per plane) has a linked list through the rows of the clues in
+ * it, and each 64x64 region has a count, so area queries skip empty regions without looking at their chunks, and only
+ * look at the clues in chunks the area overlaps.
+ */
+class ClueTable implements Iterable<DroppedClue>
+{
+	static final int INVALID_TIMER = 1;
+	static final int NOTIFIED = 1 << 1;
+	private static final int LIVE = 1 << 2;
+	private static final int NONE = LongIntMap.MISSING; // so chunk lists can start with a chunkHeads lookup.
+
+	private final LongIntMap index = new LongIntMap(64);
+	private final LongIntMap idIndex = new LongIntMap(64);
+	private final LongIntMap chunkHeads = new LongIntMap(64);
+	private final LongIntMap regionCounts = new LongIntMap(16);
+	private int nextId = 1;
+
+	private int[] itemIds = new int[16];
+	private int[] locations = new int[16]; // see GroundItemKey.packLocation.
+	private long[] startTimes = new long[16]; // epoch millis that timeRemaining was measured at.
+	private int[] timeRemaining = new int[16]; // seconds.
+	private long[] expiresAt = new long[16]; // epoch millis, set by ClueScheduler.
+	private int[] despawnTicks = new int[16]; // client tick count.
+	private int[] records = new int[16]; // ClueStore record, -1 if it isn't stored.
+	private byte[] flags = new byte[16];
+	private DroppedClue[] views = new DroppedClue[16];
+	// insertion order, as a doubly linked list through the rows.
+	private int[] next = new int[16];
+	private int[] prev = new int[16];
+	// the other clues in the same chunk.
+	private int[] chunkNext = new int[16];
+	private int[] chunkPrev = new int[16];
+	private int head = NONE;
+	private int tail = NONE;
+	private int freeList = NONE;
+	private int highWater = 0;
+	private int size = 0;
+	private int invalidTimerCount = 0;
+	private int notifiedCount = 0;
+	private int modCount = 0;
+
+	int size()
+	{
+		return size;
+	}
+
+	/**
+	 * Changes whenever a clue is added or removed, for things that cache something about the whole set of clues.
+	 */
+	int modCount()
+	{
+		return modCount;
+	}
+
+	boolean isEmpty()
+	{
+		return size == 0;
+	}
+
+	boolean hasInvalidTimers()
+	{
+		return invalidTimerCount > 0;
+	}
+
+	boolean hasNotified()
+	{
+		return notifiedCount > 0;
+	}
+
+	DroppedClue get(long packedKey)
+	{
+		int slot = index.get(packedKey);
+		return slot == LongIntMap.MISSING ? null : views[slot];
+	}
+
+	DroppedClue getById(int id)
+	{
+		int slot = idIndex.get(id);
+		return slot == LongIntMap.MISSING ? null : views[slot];
+	}
+
+	boolean contains(DroppedClue clue)
+	{
+		return clue.slot != NONE && views[clue.slot] == clue;
+	}
+
+	DroppedClue first()
+	{
+		return head == NONE ? null : views[head];
+	}
+
+	/**
+	 * For walking the rows in insertion order without going through the views: {@code for (int slot = firstSlot();
+	 * slot != -1; slot = nextSlot(slot))}.
+	 */
+	int firstSlot()
+	{
+		return head;
+	}
+
+	int nextSlot(int slot)
+	{
+		return next[slot];
+	}
+
+	int itemId(int slot)
+	{
+		return itemIds[slot];
+	}
+
+	int location(int slot)
+	{
+		return locations[slot];
+	}
+
+	DroppedClue view(int slot)
+	{
+		return views[slot];
+	}
+
+	int timeRemaining(int slot)
+	{
+		return timeRemaining[slot];
+	}
+
+	long expiresAt(int slot)
+	{
+		return expiresAt[slot];
+	}
+
+	int despawnTick(int slot)
+	{
+		return despawnTicks[slot];
+	}
+
+	int record(int slot)
+	{
+		return records[slot];
+	}
+
+	void setRecord(int slot, int record)
+	{
+		records[slot] = record;
+	}
+
+	void setExpiresAt(int slot, long expiresAt)
+	{
+		this.expiresAt[slot] = expiresAt;
+	}
+
+	boolean isNotified(int slot)
+	{
+		return (flags[slot] & NOTIFIED) != 0;
+	}
+
+	boolean isInvalidTimer(int slot)
+	{
+		return (flags[slot] & INVALID_TIMER) != 0;
+	}
+
+	/**
+	 * Epoch millis the clue despawns at with the given drop timer reduction.
+	 */
+	long deadline(int slot, int percentageReduction)
+	{
+		return startTimes[slot] + (int) (timeRemaining[slot] * (percentageReduction / 100.0)) * 1000L;
+	}
+
+	void setNotified(DroppedClue clue)
+	{
+		if (!contains(clue) || (flags[clue.slot] & NOTIFIED) != 0) return;
+		flags[clue.slot] |= NOTIFIED;
+		notifiedCount++;
+	}
+
+	/**
+	 * Adds a copy of another table's row, including its record.
+	 *
+	 * @see #add
+	 */
+	DroppedClue addRow(ClueTable from, DroppedClue row)
+	{
+		int slot = row.slot;
+		DroppedClue clue = add(from.itemIds[slot], from.locations[slot], from.startTimes[slot], from.timeRemaining[slot], from.despawnTicks[slot], from.flags[slot] & (INVALID_TIMER | NOTIFIED));
+		if (clue != null) records[clue.slot] = from.records[slot];
+		return clue;
+	}
+
+	/**
+	 * Adds a clue that was saved with timeRemaining seconds left, which start counting down now.
+	 *
+	 * @see #add
+	 */
+	DroppedClue restore(int itemId, int location, int timeRemaining, long now, int tickCount, int flags)
+	{
+		int despawnTick = tickCount + (int) Math.ceil(timeRemaining * 1000.0 / Constants.GAME_TICK_LENGTH);
+		return add(itemId, location, now, timeRemaining, despawnTick, flags);
+	}
+
+	/**
+	 * @param despawnTick the client tick count the clue despawns at, for when timers count game ticks.
+	 * @param flags {@link #INVALID_TIMER} and/or {@link #NOTIFIED}. INVALID_TIMER can't change after this.
+	 * @return the new clue, or null if a clue is already tracked at that item id and location.
+	 */
+	DroppedClue add(int itemId, int location, long startTime, int timeRemaining, int despawnTick, int flags)
+	{
+		long key = GroundItemKey.pack(itemId, location);
+		if (index.containsKey(key)) return null;
+
+		int slot = allocateSlot();
+		itemIds[slot] = itemId;
+		locations[slot] = location;
+		startTimes[slot] = startTime;
+		this.timeRemaining[slot] = timeRemaining;
+		expiresAt[slot] = 0;
+		despawnTicks[slot] = despawnTick;
+		records[slot] = -1;
+		this.flags[slot] = (byte) (flags | LIVE);
+		DroppedClue clue = new DroppedClue(this, slot, nextId++);
+		views[slot] = clue;
+		index.put(key, slot);
+		idIndex.put(clue.id, slot);
+		prev[slot] = tail;
+		next[slot] = NONE;
+		if (tail == NONE) head = slot;
+		else next[tail] = slot;
+		tail = slot;
+		linkChunk(slot);
+		size++;
+		modCount++;
+		if ((flags & INVALID_TIMER) != 0) invalidTimerCount++;
+		if ((flags & NOTIFIED) != 0) notifiedCount++;
+		return clue;
+	}
+
+	boolean remove(DroppedClue clue)
+	{
+		if (!contains(clue)) return false;
+
+		int slot = clue.slot;
+		index.remove(GroundItemKey.pack(itemIds[slot], locations[slot]));
+		idIndex.remove(clue.id);
+		int p = prev[slot];
+		int n = next[slot];
+		if (p == NONE) head = n;
+		else next[p] = n;
+		if (n == NONE) tail = p;
+		else prev[n] = p;
+		unlinkChunk(slot);
+		if ((flags[slot] & INVALID_TIMER) != 0) invalidTimerCount--;
+		if ((flags[slot] & NOTIFIED) != 0) notifiedCount--;
+		flags[slot] = 0;
+		views[slot] = null;
+		clue.slot = NONE;
+		next[slot] = freeList;
+		freeList = slot;
+		size--;
+		modCount++;
+		return true;
+	}
+
+	void clear()
+	{
+		for (int slot = 0; slot < highWater; slot++)
+		{
+			if (views[slot] != null) views[slot].slot = NONE;
+		}
+		index.clear();
+		idIndex.clear();
+		chunkHeads.clear();
+		regionCounts.clear();
+		Arrays.fill(views, 0, highWater, null);
+		Arrays.fill(flags, 0, highWater, (byte) 0);
+		head = tail = freeList = NONE;
+		highWater = 0;
+		size = 0;
+		modCount++;
+		invalidTimerCount = 0;
+		notifiedCount = 0;
+	}
+
+	/**
+	 * Takes the time since each clue's start time off its time remaining, and makes now its start time.
+	 *
+	 * @see #settleTimeRemaining(int, long)
+	 */
+	void settleTimeRemaining(long now)
+	{
+		for (int slot = 0; slot < highWater; slot++)
+		{
+			if ((flags[slot] & LIVE) == 0) continue;
+			timeRemaining[slot] -= (int) ((now - startTimes[slot]) / 1000);
+			startTimes[slot] = now;
+		}
+	}
+
+	/**
+	 * Like {@link #settleTimeRemaining(long)}, but going by the ticks left until each clue's despawn tick.
+	 */
+	void settleTimeRemaining(int tickCount, long now)
+	{
+		for (int slot = 0; slot < highWater; slot++)
+		{
+			if ((flags[slot] & LIVE) == 0) continue;
+			timeRemaining[slot] = (int) ((despawnTicks[slot] - tickCount) * (long) Constants.GAME_TICK_LENGTH / 1000);
+			startTimes[slot] = now;
+		}
+	}
+
+	/**
+	 * Adds the clues from the json the plugin used to save them as (a list of DroppedClue run through gson), for saves
+	 * from before {@link ClueCodec}.
+	 *
+	 * @param flags added to every clue's flags.
+	 * @see #restore
+	 */
+	void readJson(JsonReader in, long startTime, int tickCount, int flags) throws IOException
+	{
+		if (in.peek() == JsonToken.NULL) {
+			in.nextNull();
+			return;
+		}
+		in.beginArray();
+		while (in.hasNext())
+		{
+			int timeRemaining = 0;
+			boolean notified = false;
+			int itemId = -1, x = 0, y = 0, plane = 0;
+			in.beginObject();
+			while (in.hasNext())
+			{
+				switch (in.nextName()) {
+					case "timeRemaining":
+						timeRemaining = in.nextInt();
+						break;
+					case "notified":
+						notified = in.nextBoolean();
+						break;
+					case "groundItemKey":
+						in.beginObject();
+						while (in.hasNext())
+						{
+							String name = in.nextName();
+							if (name.equals("itemId")) {
+								itemId = in.nextInt();
+							} else if (name.equals("location")) {
+								in.beginObject();
+								while (in.hasNext())
+								{
+									String coordinate = in.nextName();
+									if (coordinate.equals("x")) x = in.nextInt();
+									else if (coordinate.equals("y")) y = in.nextInt();
+									else if (coordinate.equals("plane")) plane = in.nextInt();
+									else in.skipValue();
+								}
+								in.endObject();
+							} else {
+								in.skipValue();
+							}
+						}
+						in.endObject();
+						break;
+					default:
+						in.skipValue();
+				}
+			}
+			in.endObject();
+			if (itemId == -1) continue;
+			restore(itemId, GroundItemKey.packLocation(x, y, plane), timeRemaining, startTime, tickCount, flags | (notified ? NOTIFIED : 0));
+		}
+		in.endArray();
+	}
+
+	/**
+	 * @return the clues within radius tiles of x, y on the plane (the square WorldPoint.distanceTo uses), nearest first.
+	 */
+	List<DroppedClue> within(int x, int y, int plane, int radius)
+	{
+		List<DroppedClue> clues = new ArrayList<>();
+		forEachInArea(x - radius, y - radius, x + radius, y + radius, plane, slot -> clues.add(views[slot]));
+		clues.sort(Comparator.comparingInt(clue -> distance(clue.slot, x, y)));
+		return clues;
+	}
+
+	/**
+	 * forEachInArea, with the area cut down to the loaded scene whose south west tile is baseX, baseY.
+	 */
+	void forEachInScene(int baseX, int baseY, int minX, int minY, int maxX, int maxY, int plane, IntConsumer visitor)
+	{
+		minX = Math.max(minX, baseX);
+		minY = Math.max(minY, baseY);
+		maxX = Math.min(maxX, baseX + Constants.SCENE_SIZE - 1);
+		maxY = Math.min(maxY, baseY + Constants.SCENE_SIZE - 1);
+		if (minX <= maxX && minY <= maxY) forEachInArea(minX, minY, maxX, maxY, plane, visitor);
+	}
+
+	/**
+	 * Calls visitor with the slot of every clue in the area on the plane, which includes its edges.
+	 */
+	void forEachInArea(int minX, int minY, int maxX, int maxY, int plane, IntConsumer visitor)
+	{
+		for (int regionX = minX >> 6; regionX <= maxX >> 6; regionX++)
+		{
+			for (int regionY = minY >> 6; regionY <= maxY >> 6; regionY++)
+			{
+				if (!regionCounts.containsKey(regionKey(regionX, regionY))) continue;
+
+				int chunkMinX = Math.max(minX, regionX << 6) >> 3;
+				int chunkMaxX = Math.min(maxX, (regionX << 6) + 63) >> 3;
+				int chunkMinY = Math.max(minY, regionY << 6) >> 3;
+				int chunkMaxY = Math.min(maxY, (regionY << 6) + 63) >> 3;
+				for (int chunkX = chunkMinX; chunkX <= chunkMaxX; chunkX++)
+				{
+					for (int chunkY = chunkMinY; chunkY <= chunkMaxY; chunkY++)
+					{
+						for (int slot = chunkHeads.get(chunkKey(chunkX, chunkY, plane)); slot != NONE; slot = chunkNext[slot])
+						{
+							int location = locations[slot];
+							int x = location & 0x7FFF;
+							int y = (location >>> 15) & 0x7FFF;
+							if (x >= minX && x <= maxX && y >= minY && y <= maxY) visitor.accept(slot);
+						}
+					}
+				}
+			}
+		}
+	}
+
+	private int distance(int slot, int x, int y)
+	{
+		int location = locations[slot];
+		return Math.max(Math.abs((location & 0x7FFF) - x), Math.abs(((location >>> 15) & 0x7FFF) - y));
+	}
+
+	private static long chunkKey(int chunkX, int chunkY, int plane)
+	{
+		return (long) plane << 24 | chunkX << 12 | chunkY;
+	}
+
+	private static long regionKey(int regionX, int regionY)
+	{
+		return regionX << 9 | regionY;
+	}
+
+	private static long chunkKey(int location)
+	{
+		return chunkKey((location & 0x7FFF) >> 3, ((location >>> 15) & 0x7FFF) >> 3, (location >>> 30) & 0x3);
+	}
+
+	private static long regionKey(int location)
+	{
+		return regionKey((location & 0x7FFF) >> 6, ((location >>> 15) & 0x7FFF) >> 6);
+	}
+
+	private void linkChunk(int slot)
+	{
+		long chunk = chunkKey(locations[slot]);
+		int oldHead = chunkHeads.put(chunk, slot);
+		chunkPrev[slot] = NONE;
+		chunkNext[slot] = oldHead;
+		if (oldHead != NONE) chunkPrev[oldHead] = slot;
+
+		long region = regionKey(locations[slot]);
+		int count = regionCounts.get(region);
+		regionCounts.put(region, count == LongIntMap.MISSING ? 1 : count + 1);
+	}
+
+	private void unlinkChunk(int slot)
+	{
+		long chunk = chunkKey(locations[slot]);
+		int p = chunkPrev[slot];
+		int n = chunkNext[slot];
+		if (p != NONE) chunkNext[p] = n;
+		else if (n != NONE) chunkHeads.put(chunk, n);
+		else chunkHeads.remove(chunk);
+		if (n != NONE) chunkPrev[n] = p;
+
+		long region = regionKey(locations[slot]);
+		int count = regionCounts.get(region);
+		if (count == 1) regionCounts.remove(region);
+		else regionCounts.put(region, count - 1);
+	}
+
+	private int allocateSlot()
+	{
+		if (freeList != NONE) {
+			int slot = freeList;
+			freeList = next[slot];
+			return slot;
+		}
+		if (highWater == views.length) {
+			int capacity = views.length << 1;
+			itemIds = Arrays.copyOf(itemIds, capacity);
+			locations = Arrays.copyOf(locations, capacity);
+			startTimes = Arrays.copyOf(startTimes, capacity);
+			timeRemaining = Arrays.copyOf(timeRemaining, capacity);
+			expiresAt = Arrays.copyOf(expiresAt, capacity);
+			despawnTicks = Arrays.copyOf(despawnTicks, capacity);
+			records = Arrays.copyOf(records, capacity);
+			flags = Arrays.copyOf(flags, capacity);
+			views = Arrays.copyOf(views, capacity);
+			next = Arrays.copyOf(next, capacity);
+			prev = Arrays.copyOf(prev, capacity);
+			chunkNext = Arrays.copyOf(chunkNext, capacity);
+			chunkPrev = Arrays.copyOf(chunkPrev, capacity);
+		}
+		return highWater++;
+	}
+
+	/**
+	 * Removing the clue that was just returned is fine, removing any other clue while iterating is not.
+	 */
+	@Override
+	public Iterator<DroppedClue> iterator()
+	{
+		return new Iterator<DroppedClue>()
+		{
+			private int slot = head;
+
+			@Override
+			public boolean hasNext()
+			{
+				return slot != NONE;
+			}
+
+			@Override
+			public DroppedClue next()
+			{
+				if (slot == NONE) throw new NoSuchElementException();
+				DroppedClue clue = views[slot];
+				slot = next[slot];
+				return clue;
+			}
+		};
+	}
+}
@@ -0,0 +1,65 @@
+package com.cluejuggling;
+
+import com.cluejuggling.ClueScrollJugglingPlugin.ClueTier;
+import java.util.Arrays;
+import java.util.function.IntFunction;
+import net.runelite.api.ItemID;
+
+/**
+ * Item id -> clue tier, so the tier of an item is an array read instead of an ItemComposition and a bunch of name
+ * compares. This is a memo cache, not a list of clue ids: only the base clue scroll ids are put in up front (every step
+ * of a tier has its own id, so there are too many to list), and any other id is resolved the slow way the first time
+ * it's seen and remembered. Client thread only.
+ */
+class ClueTierTable
+{
+	private static final byte UNKNOWN = 0;
+	private static final byte NOT_A_CLUE = 1;
+	private static final ClueTier[] TIERS = ClueTier.values();
+
+	private final IntFunction<ClueTier> resolver;
+	private byte[] tiers = new byte[32768]; // ordinal + 2, or one of the above.
+
+	/**
+	 * @param resolver the uncached lookup, null for items that aren't clues. Called at most once per item id.
+	 */
+	ClueTierTable(IntFunction<ClueTier> resolver)
+	{
+		this.resolver = resolver;
+		set(ItemID.CLUE_SCROLL_BEGINNER, ClueTier.BEGINNER);
+		set(ItemID.CLUE_SCROLL_EASY, ClueTier.EASY);
+		set(ItemID.CLUE_SCROLL_MEDIUM, ClueTier.MEDIUM);
+		set(ItemID.CLUE_SCROLL_HARD, ClueTier.HARD);
+		set(ItemID.CLUE_SCROLL_ELITE, ClueTier.ELITE);
+		set(ItemID.CLUE_SCROLL_MASTER, ClueTier.MASTER);
+		set(ItemID.CHALLENGE_SCROLL_ELITE, ClueTier.ELITE_SHERLOCK_CHALLENGE);
+	}
+
+	/**
+	 * @return null if the item isn't a clue.
+	 */
+	ClueTier get(int itemId)
+	{
+		if (itemId < 0) return null;
+		if (itemId >= tiers.length) {
+			tiers = Arrays.copyOf(tiers, Integer.highestOneBit(itemId) << 1);
+		}
+
+		byte tier = tiers[itemId];
+		if (tier == UNKNOWN) {
+			tier = encode(resolver.apply(itemId));
+			tiers[itemId] = tier;
+		}
+		return tier == NOT_A_CLUE ? null : TIERS[tier - 2];
+	}
+
+	private void set(int itemId, ClueTier clueTier)
+	{
+		tiers[itemId] = encode(clueTier);
+	}
+
+	private static byte encode(ClueTier clueTier)
+	{
+		return clueTier == null ? NOT_A_CLUE : (byte) (clueTier.ordinal() + 2);
+	}
+}
@@ -0,0 +1,144 @@
+package com.cluejuggling;
+
+import com.cluejuggling.ClueScrollJugglingPlugin.DroppedClue;
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.FontMetrics;
+import java.awt.Graphics2D;
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+import javax.inject.Inject;
+import net.runelite.api.Client;
+import net.runelite.api.Perspective;
+import net.runelite.api.Player;
+import net.runelite.api.Point;
+import net.runelite.api.coords.LocalPoint;
+import net.runelite.api.coords.WorldPoint;
+import net.runelite.client.ui.FontManager;
+import net.runelite.client.ui.overlay.Overlay;
+import net.runelite.client.ui.overlay.OverlayLayer;
+import net.runelite.client.ui.overlay.OverlayPosition;
+
+/**
+ * Each clue's timer on the tile it's lying on, for the tileTimers option.
+ *
+ * Only clues on the player's plane in the loaded scene and within MAX_DISTANCE tiles of the player are looked at, using
+ * the table's chunk index, so clues anywhere else cost nothing. Those are projected onto the canvas and the ones off
+ * the viewport dropped. The positions are kept until the camera, the scene, the player's tile or the clues change,
+ * so standing still is a loop of drawString.
+ */
+class ClueTileOverlay extends Overlay
+{
+	private static final int MAX_DISTANCE = 32; // tiles, about where the ground items plugin stops drawing.
+	private static final int Z_OFFSET = 20;
+
+	private final Client client;
+	private final ClueScrollJugglingPlugin plugin;
+	private final ClueScrollJugginglingConfig config;
+
+	// What the cached positions were worked out for.
+	private final int[] projectedFor = new int[14];
+	private final int[] current = new int[projectedFor.length];
+
+	private DroppedClue[] visible = new DroppedClue[16];
+	private int[] canvasX = new int[16];
+	private int[] canvasY = new int[16];
+	private int visibleCount = 0;
+	private final IntConsumer projectSlot = this::project;
+	private ClueTable projecting;
+	private int plane;
+
+	@Inject
+	ClueTileOverlay(Client client, ClueScrollJugglingPlugin plugin, ClueScrollJugginglingConfig config)
+	{
+		this.client = client;
+		this.plugin = plugin;
+		this.config = config;
+		setPosition(OverlayPosition.DYNAMIC);
+		setLayer(OverlayLayer.ABOVE_SCENE);
+		projectedFor[0] = -1;
+	}
+
+	@Override
+	public Dimension render(Graphics2D graphics)
+	{
+		ClueTable table = plugin.getDroppedClues();
+		if (!config.tileTimers() || table.isEmpty()) return null;
+		Player player = client.getLocalPlayer();
+		if (player == null) return null;
+
+		WorldPoint playerLocation = player.getWorldLocation();
+		current[0] = table.modCount();
+		current[1] = client.getBaseX();
+		current[2] = client.getBaseY();
+		current[3] = client.getPlane();
+		current[4] = playerLocation.getX();
+		current[5] = playerLocation.getY();
+		current[6] = client.getCameraX();
+		current[7] = client.getCameraY();
+		current[8] = client.getCameraZ();
+		current[9] = client.getCameraPitch();
+		current[10] = client.getCameraYaw();
+		current[11] = client.getScale();
+		current[12] = client.getViewportWidth();
+		current[13] = client.getViewportHeight();
+		if (!Arrays.equals(current, projectedFor)) {
+			projectAll(table, playerLocation);
+			System.arraycopy(current, 0, projectedFor, 0, current.length);
+		}
+
+		graphics.setFont(FontManager.getRunescapeSmallFont());
+		FontMetrics metrics = graphics.getFontMetrics();
+		for (int i = 0; i < visibleCount; i++)
+		{
+			DroppedClue clue = visible[i];
+			String text = clue.isInvalidTimer() ? "?" : TimerText.format(plugin.remainingMillis(clue));
+			int x = canvasX[i] - metrics.stringWidth(text) / 2;
+			int y = canvasY[i];
+			graphics.setColor(Color.BLACK);
+			graphics.drawString(text, x + 1, y + 1);
+			graphics.setColor(clue.isInvalidTimer() || clue.isNotified() ? Color.RED : Color.WHITE);
+			graphics.drawString(text, x, y);
+		}
+		return null;
+	}
+
+	private void projectAll(ClueTable table, WorldPoint playerLocation)
+	{
+		int x = playerLocation.getX();
+		int y = playerLocation.getY();
+
+		visibleCount = 0;
+		projecting = table;
+		plane = client.getPlane();
+		table.forEachInScene(client.getBaseX(), client.getBaseY(), x - MAX_DISTANCE, y - MAX_DISTANCE, x + MAX_DISTANCE, y + MAX_DISTANCE, plane, projectSlot);
+		projecting = null;
+		for (int i = visibleCount; i < visible.length && visible[i] != null; i++)
+		{
+			visible[i] = null;
+		}
+	}
+
+	private void project(int slot)
+	{
+		int location = projecting.location(slot);
+		int sceneX = (location & 0x7FFF) - client.getBaseX();
+		int sceneY = ((location >>> 15) & 0x7FFF) - client.getBaseY();
+		LocalPoint localPoint = new LocalPoint((sceneX << Perspective.LOCAL_COORD_BITS) + Perspective.LOCAL_HALF_TILE_SIZE, (sceneY << Perspective.LOCAL_COORD_BITS) + Perspective.LOCAL_HALF_TILE_SIZE);
+		Point point = Perspective.localToCanvas(client, localPoint, plane, Z_OFFSET);
+		if (point == null) return;
+		int x = point.getX() - client.getViewportXOffset();
+		int y = point.getY() - client.getViewportYOffset();
+		if (x < 0 || y < 0 || x >= client.getViewportWidth() || y >= client.getViewportHeight()) return;
+
+		if (visibleCount == visible.length) {
+			visible = Arrays.copyOf(visible, visibleCount * 2);
+			canvasX = Arrays.copyOf(canvasX, visibleCount * 2);
+			canvasY = Arrays.copyOf(canvasY, visibleCount * 2);
+		}
+		visible[visibleCount] = projecting.view(slot);
+		canvasX[visibleCount] = point.getX();
+		canvasY[visibleCount] = point.getY();
+		visibleCount++;
+	}
+}
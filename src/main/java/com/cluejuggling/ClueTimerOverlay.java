@@ -0,0 +1,153 @@
+package com.cluejuggling;
+
+import com.cluejuggling.ClueScrollJugglingPlugin.DroppedClue;
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.FontMetrics;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import javax.inject.Inject;
+import net.runelite.api.ItemID;
+import net.runelite.api.MenuAction;
+import net.runelite.client.game.ItemManager;
+import net.runelite.client.ui.FontManager;
+import net.runelite.client.ui.overlay.Overlay;
+import net.runelite.client.ui.overlay.OverlayMenuEntry;
+import net.runelite.client.ui.overlay.OverlayPosition;
+import net.runelite.client.ui.overlay.components.ComponentConstants;
+import net.runelite.client.util.AsyncBufferedImage;
+
+/**
+ * Every clue's timer in one overlay, for the overlayTimers option. Draws a grid of infobox looking cells in a single
+ * pass, instead of InfoBoxManager laying out, sorting and rendering an infobox per clue.
+ *
+ * The cells are only worked out again when a clue is added or removed, and the icons are copied once into an atlas
+ * image, so a frame is one loop of drawImage and drawString no matter how many clues there are.
+ */
+class ClueTimerOverlay extends Overlay
+{
+	private static final int CELL_SIZE = 35;
+	private static final int GAP = 2;
+	private static final int COLUMNS = 8;
+	private static final int ICON_WIDTH = 36;
+	private static final int ICON_HEIGHT = 32;
+
+	private final ClueScrollJugglingPlugin plugin;
+	private final ClueScrollJugginglingConfig config;
+	private final ItemManager itemManager;
+
+	// icon item id -> column of the atlas.
+	private final LongIntMap atlasColumns = new LongIntMap(16);
+	private BufferedImage atlas = new BufferedImage(ICON_WIDTH * 8, ICON_HEIGHT, BufferedImage.TYPE_INT_ARGB);
+	private int atlasSize = 0;
+
+	// The layout, in the table's order. Rebuilt when the table's modCount changes.
+	private int layoutModCount = -1;
+	private DroppedClue[] clues = new DroppedClue[16];
+	private int[] columns = new int[16];
+	private int clueCount = 0;
+	private final Dimension size = new Dimension();
+
+	@Inject
+	ClueTimerOverlay(ClueScrollJugglingPlugin plugin, ClueScrollJugginglingConfig config, ItemManager itemManager)
+	{
+		this.plugin = plugin;
+		this.config = config;
+		this.itemManager = itemManager;
+		setPosition(OverlayPosition.TOP_LEFT);
+		// same entry as the combined infobox, so shift-right-click lists the clues.
+		getMenuEntries().add(new OverlayMenuEntry(MenuAction.RUNELITE_OVERLAY, "infobox jank", "clue scroll combined"));
+	}
+
+	@Override
+	public Dimension render(Graphics2D graphics)
+	{
+		ClueTable table = plugin.getDroppedClues();
+		if (!config.overlayTimers() || table.isEmpty()) return null;
+
+		if (table.modCount() != layoutModCount) layout(table);
+
+		graphics.setFont(FontManager.getRunescapeSmallFont());
+		FontMetrics metrics = graphics.getFontMetrics();
+		for (int i = 0; i < clueCount; i++)
+		{
+			DroppedClue clue = clues[i];
+			int x = (i % COLUMNS) * (CELL_SIZE + GAP);
+			int y = (i / COLUMNS) * (CELL_SIZE + GAP);
+
+			graphics.setColor(ComponentConstants.STANDARD_BACKGROUND_COLOR);
+			graphics.fillRect(x, y, CELL_SIZE, CELL_SIZE);
+
+			int iconX = x + (CELL_SIZE - ICON_WIDTH) / 2;
+			int iconY = y + (CELL_SIZE - ICON_HEIGHT) / 2;
+			int atlasX = columns[i] * ICON_WIDTH;
+			graphics.drawImage(atlas, iconX, iconY, iconX + ICON_WIDTH, iconY + ICON_HEIGHT, atlasX, 0, atlasX + ICON_WIDTH, ICON_HEIGHT, null);
+
+			String text = clue.isInvalidTimer() ? "?" : TimerText.format(plugin.remainingMillis(clue));
+			int textX = x + (CELL_SIZE - metrics.stringWidth(text)) / 2;
+			int textY = y + CELL_SIZE - 1;
+			graphics.setColor(Color.BLACK);
+			graphics.drawString(text, textX + 1, textY + 1);
+			graphics.setColor(clue.isInvalidTimer() || clue.isNotified() ? Color.RED : Color.WHITE);
+			graphics.drawString(text, textX, textY);
+		}
+		return size;
+	}
+
+	private void layout(ClueTable table)
+	{
+		if (clues.length < table.size()) {
+			clues = new DroppedClue[Integer.highestOneBit(table.size()) << 1];
+			columns = new int[clues.length];
+		}
+		clueCount = 0;
+		for (DroppedClue clue : table)
+		{
+			clues[clueCount] = clue;
+			columns[clueCount] = atlasColumn(clue.getItemId() == ItemID.CHALLENGE_SCROLL_ELITE ? ItemID.DEERSTALKER : clue.getItemId());
+			clueCount++;
+		}
+		for (int i = clueCount; i < clues.length && clues[i] != null; i++)
+		{
+			clues[i] = null;
+		}
+
+		int rows = (clueCount + COLUMNS - 1) / COLUMNS;
+		int columnCount = Math.min(clueCount, COLUMNS);
+		size.setSize(columnCount * (CELL_SIZE + GAP) - GAP, rows * (CELL_SIZE + GAP) - GAP);
+		layoutModCount = table.modCount();
+	}
+
+	/**
+	 * Adds the icon to the atlas the first time it's needed. The image might still be loading, in which case it's
+	 * copied in when it's done.
+	 */
+	private int atlasColumn(int iconItemId)
+	{
+		int column = atlasColumns.get(iconItemId);
+		if (column != LongIntMap.MISSING) return column;
+
+		column = atlasSize++;
+		if (column * ICON_WIDTH >= atlas.getWidth()) {
+			BufferedImage bigger = new BufferedImage(atlas.getWidth() * 2, ICON_HEIGHT, BufferedImage.TYPE_INT_ARGB);
+			Graphics2D graphics = bigger.createGraphics();
+			graphics.drawImage(atlas, 0, 0, null);
+			graphics.dispose();
+			atlas = bigger;
+		}
+		atlasColumns.put(iconItemId, column);
+
+		AsyncBufferedImage image = itemManager.getImage(iconItemId);
+		int atlasX = column * ICON_WIDTH;
+		image.onLoaded(() -> copyIcon(image, atlasX));
+		copyIcon(image, atlasX);
+		return column;
+	}
+
+	private void copyIcon(BufferedImage image, int atlasX)
+	{
+		Graphics2D graphics = atlas.createGraphics();
+		graphics.drawImage(image, atlasX, 0, null);
+		graphics.dispose();
+	}
+}
@@ -0,0 +1,75 @@
+package com.cluejuggling;
+
+import java.util.Arrays;
+
+/**
+ * Binary min-heap of (deadline, clue id) pairs, kept in two parallel arrays so it holds no objects.
+ */
+final class DeadlineHeap
+{
+	private long[] deadlines = new long[16];
+	private int[] ids = new int[16];
+	private int size = 0;
+
+	boolean isEmpty()
+	{
+		return size == 0;
+	}
+
+	/**
+	 * Only valid if the heap isn't empty, same for {@link #peekId()}.
+	 */
+	long peekDeadline()
+	{
+		return deadlines[0];
+	}
+
+	int peekId()
+	{
+		return ids[0];
+	}
+
+	void add(long deadline, int id)
+	{
+		if (size == deadlines.length) {
+			deadlines = Arrays.copyOf(deadlines, size << 1);
+			ids = Arrays.copyOf(ids, size << 1);
+		}
+		int i = size++;
+		while (i > 0)
+		{
+			int parent = (i - 1) >>> 1;
+			if (deadlines[parent] <= deadline) break;
+			deadlines[i] = deadlines[parent];
+			ids[i] = ids[parent];
+			i = parent;
+		}
+		deadlines[i] = deadline;
+		ids[i] = id;
+	}
+
+	void poll()
+	{
+		if (--size == 0) return;
+		long deadline = deadlines[size];
+		int id = ids[size];
+		int i = 0;
+		int half = size >>> 1;
+		while (i < half)
+		{
+			int child = (i << 1) + 1;
+			if (child + 1 < size && deadlines[child + 1] < deadlines[child]) child++;
+			if (deadline <= deadlines[child]) break;
+			deadlines[i] = deadlines[child];
+			ids[i] = ids[child];
+			i = child;
+		}
+		deadlines[i] = deadline;
+		ids[i] = id;
+	}
+
+	void clear()
+	{
+		size = 0;
+	}
+}
@@ -0,0 +1,158 @@
+package com.cluejuggling;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.BitSet;
+
+/**
+ * Records the item, tick and game state events the plugin sees, so they can be replayed without a client (see
+ * TraceReplay in the jmh source set). Turned on and off with ::cluetrace.
+ *
+ * Format: magic, version, starting tick count, then records that each start with a type byte. Numbers are varints
+ * except packed locations. An item's name is written the first time the item spawns, since replay needs it to
+ * classify the item, and the scene's base is written on the first tick and whenever it changes, since despawns
+ * outside the scene are ignored. It's written just before the tick's TICK, so a replay has it when the tick's despawns
+ * are handled.
+ *
+ * Write errors don't throw, they stop the recording and show up in {@link #getError()}.
+ */
+class EventTraceWriter implements AutoCloseable
+{
+	static final int MAGIC = 0x434A5452; // CJTR
+	static final int VERSION = 3; // 2 added SCENE, 3 writes it before the TICK it's for instead of after.
+
+	static final int TICK = 0; // tick count
+	static final int SPAWN = 1; // item id, packed location, despawn tick
+	static final int DESPAWN = 2; // item id, packed location
+	static final int GAME_STATE = 3; // state
+	static final int ITEM_NAME = 4; // item id, utf name
+	static final int SCENE = 5; // base x, base y
+
+	private final DataOutputStream out;
+	private final BitSet namedItems = new BitSet();
+	private final File file;
+	private IOException error = null;
+	private int sceneBaseX = -1;
+	private int sceneBaseY = -1;
+
+	EventTraceWriter(File file, int tickCount) throws IOException
+	{
+		this.file = file;
+		file.getParentFile().mkdirs();
+		out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+		out.writeInt(MAGIC);
+		out.writeByte(VERSION);
+		writeVarInt(tickCount);
+	}
+
+	File getFile()
+	{
+		return file;
+	}
+
+	IOException getError()
+	{
+		return error;
+	}
+
+	boolean isNamed(int itemId)
+	{
+		return namedItems.get(itemId);
+	}
+
+	void itemName(int itemId, String name)
+	{
+		if (error != null) return;
+		try {
+			namedItems.set(itemId);
+			out.writeByte(ITEM_NAME);
+			writeVarInt(itemId);
+			out.writeUTF(name);
+		} catch (IOException e) {
+			error = e;
+		}
+	}
+
+	void tick(int tickCount)
+	{
+		if (error != null) return;
+		try {
+			out.writeByte(TICK);
+			writeVarInt(tickCount);
+		} catch (IOException e) {
+			error = e;
+		}
+	}
+
+	void spawn(int itemId, int packedLocation, int despawnTick)
+	{
+		if (error != null) return;
+		try {
+			out.writeByte(SPAWN);
+			writeVarInt(itemId);
+			out.writeInt(packedLocation);
+			writeVarInt(despawnTick);
+		} catch (IOException e) {
+			error = e;
+		}
+	}
+
+	void despawn(int itemId, int packedLocation)
+	{
+		if (error != null) return;
+		try {
+			out.writeByte(DESPAWN);
+			writeVarInt(itemId);
+			out.writeInt(packedLocation);
+		} catch (IOException e) {
+			error = e;
+		}
+	}
+
+	/**
+	 * Only writes anything if the base changed.
+	 */
+	void scene(int baseX, int baseY)
+	{
+		if (error != null || (baseX == sceneBaseX && baseY == sceneBaseY)) return;
+		try {
+			sceneBaseX = baseX;
+			sceneBaseY = baseY;
+			out.writeByte(SCENE);
+			writeVarInt(baseX);
+			writeVarInt(baseY);
+		} catch (IOException e) {
+			error = e;
+		}
+	}
+
+	void gameState(int state)
+	{
+		if (error != null) return;
+		try {
+			out.writeByte(GAME_STATE);
+			writeVarInt(state);
+		} catch (IOException e) {
+			error = e;
+		}
+	}
+
+	private void writeVarInt(int value) throws IOException
+	{
+		while ((value & ~0x7F) != 0)
+		{
+			out.writeByte((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		out.writeByte(value);
+	}
+
+	@Override
+	public void close() throws IOException
+	{
+		out.close();
+	}
+}
@@ -0,0 +1,94 @@
+package com.cluejuggling;
+
+import com.google.common.collect.ImmutableSet;
+import java.util.StringJoiner;
+import java.util.regex.Pattern;
+
+/**
+ * The extraItems config compiled into an item id set and one regex covering every name rule. Immutable, so a reload
+ * just swaps the reference and can't be seen half done from the client thread.
+ */
+final class ExtraItemMatcher
+{
+	static final ExtraItemMatcher EMPTY = new ExtraItemMatcher(ImmutableSet.of(), null, false);
+
+	private final ImmutableSet<Integer> itemIds;
+	private final Pattern names; // null if there are no name rules.
+	private final boolean matchesEverything;
+
+	private ExtraItemMatcher(ImmutableSet<Integer> itemIds, Pattern names, boolean matchesEverything)
+	{
+		this.itemIds = itemIds;
+		this.names = names;
+		this.matchesEverything = matchesEverything;
+	}
+
+	/**
+	 * @param extraItems comma separated item ids and names, see {@link MatchType#getType} for the name rules.
+	 */
+	static ExtraItemMatcher compile(String extraItems)
+	{
+		ImmutableSet.Builder<Integer> itemIds = ImmutableSet.builder();
+		StringJoiner alternatives = new StringJoiner("|");
+		boolean hasNameRules = false;
+		boolean matchesEverything = false;
+		for (String s : extraItems.split(","))
+		{
+			s = s.trim();
+			if (s.isEmpty()) continue;
+			try {
+				itemIds.add(Integer.parseInt(s));
+				continue;
+			} catch (NumberFormatException ex) {
+				// it's a name.
+			}
+
+			MatchType type = MatchType.getType(s);
+			if (type == MatchType.IGNORE) {
+				matchesEverything = true;
+				continue;
+			}
+			alternatives.add("(?:" + toRegex(type, MatchType.prepareMatch(s, type)) + ")");
+			hasNameRules = true;
+		}
+		return new ExtraItemMatcher(itemIds.build(), hasNameRules ? Pattern.compile(alternatives.toString()) : null, matchesEverything);
+	}
+
+	private static String toRegex(MatchType type, String match)
+	{
+		switch (type) {
+			case EQUALS:
+				return Pattern.quote(match);
+			case STARTS_WITH:
+				return Pattern.quote(match) + ".*";
+			case ENDS_WITH:
+				return ".*" + Pattern.quote(match);
+			case CONTAINS:
+				return ".*" + Pattern.quote(match) + ".*";
+			case WILDCARD:
+				// already a regex, with its own (?i) that only applies inside this group.
+				return match;
+			default:
+				// shouldn't happen.
+				throw new IllegalStateException();
+		}
+	}
+
+	boolean matchesId(int itemId)
+	{
+		return matchesEverything || itemIds.contains(itemId);
+	}
+
+	boolean hasNameRules()
+	{
+		return names != null;
+	}
+
+	/**
+	 * @param name standardized, lower case item name.
+	 */
+	boolean matchesName(String name)
+	{
+		return matchesEverything || (names != null && names.matcher(name).matches());
+	}
+}
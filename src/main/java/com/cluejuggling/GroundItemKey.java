@@ -0,0 +1,37 @@
+package com.cluejuggling;
+
+import net.runelite.api.coords.WorldPoint;
+
+/**
+ * A ground item's key, its item id and tile, packed into a long. Tracked clues and the spawn reconciler are keyed by
+ * these, so matching a despawn to a clue doesn't need an object per item.
+ */
+final class GroundItemKey
+{
+	private GroundItemKey()
+	{
+	}
+
+	static long pack(int itemId, int packedLocation)
+	{
+		return ((long) itemId << 32) | (packedLocation & 0xFFFFFFFFL);
+	}
+
+	/**
+	 * 15 bits x, 15 bits y, 2 bits plane.
+	 */
+	static int packLocation(WorldPoint location)
+	{
+		return packLocation(location.getX(), location.getY(), location.getPlane());
+	}
+
+	static int packLocation(int x, int y, int plane)
+	{
+		return (x & 0x7FFF) | (y & 0x7FFF) << 15 | (plane & 0x3) << 30;
+	}
+
+	static WorldPoint unpackLocation(int packedLocation)
+	{
+		return new WorldPoint(packedLocation & 0x7FFF, (packedLocation >>> 15) & 0x7FFF, (packedLocation >>> 30) & 0x3);
+	}
+}
@@ -0,0 +1,100 @@
+package com.cluejuggling;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fixed size queue of item spawn and despawn events between the event handlers (the producer) and the tick that
+ * reconciles them (the consumer). Events are stored as primitives in parallel arrays, so queueing and draining don't
+ * allocate, and a burst that fills it drops events instead of growing the heap; {@link #offer} returns false for those
+ * so they can be counted.
+ *
+ * Single producer, single consumer. Both are the client thread right now, but head and tail are published with
+ * ordered writes so either side could move to another thread.
+ */
+final class ItemEventRing
+{
+	static final int SPAWN = 0;
+	static final int DESPAWN = 1;
+
+	private final int capacity;
+	private final int mask;
+	private final byte[] types;
+	private final int[] itemIds;
+	private final int[] locations;
+	private final int[] despawnTicks;
+	private final AtomicLong head = new AtomicLong(); // next event to consume.
+	private final AtomicLong tail = new AtomicLong(); // next free record.
+
+	/**
+	 * @param capacity rounded up to a power of 2.
+	 */
+	ItemEventRing(int capacity)
+	{
+		this.capacity = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+		mask = this.capacity - 1;
+		types = new byte[this.capacity];
+		itemIds = new int[this.capacity];
+		locations = new int[this.capacity];
+		despawnTicks = new int[this.capacity];
+	}
+
+	/**
+	 * Producer side.
+	 *
+	 * @param despawnTick unused for despawns.
+	 * @return false if the ring is full and the event was dropped.
+	 */
+	boolean offer(int type, int itemId, int location, int despawnTick)
+	{
+		long t = tail.get();
+		if (t - head.get() == capacity) return false;
+		int i = (int) t & mask;
+		types[i] = (byte) type;
+		itemIds[i] = itemId;
+		locations[i] = location;
+		despawnTicks[i] = despawnTick;
+		tail.lazySet(t + 1);
+		return true;
+	}
+
+	/**
+	 * Consumer side, like the rest. The number of events that can be read, from index 0.
+	 */
+	int size()
+	{
+		return (int) (tail.get() - head.get());
+	}
+
+	int type(int index)
+	{
+		return types[(int) (head.get() + index) & mask];
+	}
+
+	int itemId(int index)
+	{
+		return itemIds[(int) (head.get() + index) & mask];
+	}
+
+	int location(int index)
+	{
+		return locations[(int) (head.get() + index) & mask];
+	}
+
+	int despawnTick(int index)
+	{
+		return despawnTicks[(int) (head.get() + index) & mask];
+	}
+
+	/**
+	 * Removes the first count events.
+	 */
+	void consume(int count)
+	{
+		head.lazySet(head.get() + count);
+	}
+
+	void clear()
+	{
+		head.lazySet(tail.get());
+	}
+}
@@ -0,0 +1,91 @@
+package com.cluejuggling;
+
+import java.util.Arrays;
+
+/**
+ * Log-linear histogram of nanosecond latencies, 8 linear buckets per power of two (so about 12% precision), in a fixed
+ * array. Recording doesn't allocate.
+ */
+final class LatencyHistogram
+{
+	private static final int SUB_BUCKET_BITS = 3;
+	private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+	// values are positive longs, so the highest bit that can be set is bit 62.
+	private final long[] counts = new long[(63 - SUB_BUCKET_BITS + 1) * SUB_BUCKETS];
+	private long count = 0;
+	private long total = 0;
+	private long max = 0;
+
+	void record(long nanos)
+	{
+		if (nanos < 0) nanos = 0;
+		counts[bucket(nanos)]++;
+		count++;
+		total += nanos;
+		if (nanos > max) max = nanos;
+	}
+
+	private static int bucket(long value)
+	{
+		if (value < SUB_BUCKETS) return (int) value;
+		int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+		return (shift + 1) * SUB_BUCKETS + (int) ((value >>> shift) & (SUB_BUCKETS - 1));
+	}
+
+	private static long lowestValue(int bucket)
+	{
+		if (bucket < SUB_BUCKETS) return bucket;
+		int shift = bucket / SUB_BUCKETS - 1;
+		return (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << shift;
+	}
+
+	long getCount()
+	{
+		return count;
+	}
+
+	long getMax()
+	{
+		return max;
+	}
+
+	double getMean()
+	{
+		return count == 0 ? 0 : (double) total / count;
+	}
+
+	/**
+	 * @return the upper bound of the bucket the percentile falls in, in nanos.
+	 */
+	long getPercentile(double percentile)
+	{
+		if (count == 0) return 0;
+		long target = Math.max(1, (long) Math.ceil(percentile / 100.0 * count));
+		long seen = 0;
+		for (int i = 0; i < counts.length; i++)
+		{
+			seen += counts[i];
+			if (seen >= target) {
+				long upper = i + 1 < counts.length ? lowestValue(i + 1) - 1 : Long.MAX_VALUE;
+				return Math.min(upper, max);
+			}
+		}
+		return max;
+	}
+
+	void reset()
+	{
+		Arrays.fill(counts, 0);
+		count = 0;
+		total = 0;
+		max = 0;
+	}
+
+	@Override
+	public String toString()
+	{
+		return String.format("n=%d mean=%.1fus p50=%.1fus p90=%.1fus p99=%.1fus p99.9=%.1fus max=%.1fus",
+			count, getMean() / 1000, getPercentile(50) / 1000.0, getPercentile(90) / 1000.0, getPercentile(99) / 1000.0, getPercentile(99.9) / 1000.0, max / 1000.0);
+	}
+}
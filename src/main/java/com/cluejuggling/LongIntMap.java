@@ -0,0 +1,138 @@
+package com.cluejuggling;
+
+import java.util.Arrays;
+
+/**
+ * Open addressing long -> int map, so lookups by packed key don't box anything. Long.MIN_VALUE can't be used as a key.
+ */
+final class LongIntMap
+{
+	static final int MISSING = -1;
+
+	private static final long EMPTY = Long.MIN_VALUE;
+
+	private long[] keys;
+	private int[] values;
+	private int mask;
+	private int size;
+
+	LongIntMap(int expectedSize)
+	{
+		int capacity = Integer.highestOneBit(Math.max(4, expectedSize * 2 - 1)) << 1;
+		allocate(capacity);
+	}
+
+	private void allocate(int capacity)
+	{
+		keys = new long[capacity];
+		values = new int[capacity];
+		Arrays.fill(keys, EMPTY);
+		mask = capacity - 1;
+	}
+
+	private int home(long key)
+	{
+		long h = key * 0x9E3779B97F4A7C15L;
+		return (int) (h ^ (h >>> 32)) & mask;
+	}
+
+	int size()
+	{
+		return size;
+	}
+
+	boolean containsKey(long key)
+	{
+		return get(key) != MISSING;
+	}
+
+	/**
+	 * @return the value, or {@link #MISSING}.
+	 */
+	int get(long key)
+	{
+		for (int i = home(key); ; i = (i + 1) & mask)
+		{
+			long k = keys[i];
+			if (k == key) return values[i];
+			if (k == EMPTY) return MISSING;
+		}
+	}
+
+	/**
+	 * @return the previous value, or {@link #MISSING}.
+	 */
+	int put(long key, int value)
+	{
+		if (key == EMPTY) throw new IllegalArgumentException("reserved key");
+
+		int i = home(key);
+		for (; ; i = (i + 1) & mask)
+		{
+			long k = keys[i];
+			if (k == key) {
+				int previous = values[i];
+				values[i] = value;
+				return previous;
+			}
+			if (k == EMPTY) break;
+		}
+		keys[i] = key;
+		values[i] = value;
+		if (++size * 2 > keys.length) rehash(keys.length << 1);
+		return MISSING;
+	}
+
+	/**
+	 * @return the removed value, or {@link #MISSING}.
+	 */
+	int remove(long key)
+	{
+		int i = home(key);
+		for (; ; i = (i + 1) & mask)
+		{
+			long k = keys[i];
+			if (k == key) break;
+			if (k == EMPTY) return MISSING;
+		}
+		int removed = values[i];
+
+		// Backward shift deletion, so probe chains stay intact without tombstones.
+		for (int j = (i + 1) & mask; keys[j] != EMPTY; j = (j + 1) & mask)
+		{
+			int home = home(keys[j]);
+			boolean reachable = i <= j ? (i < home && home <= j) : (i < home || home <= j);
+			if (!reachable) {
+				keys[i] = keys[j];
+				values[i] = values[j];
+				i = j;
+			}
+		}
+		keys[i] = EMPTY;
+		size--;
+		return removed;
+	}
+
+	void clear()
+	{
+		if (size == 0) return;
+		Arrays.fill(keys, EMPTY);
+		size = 0;
+	}
+
+	private void rehash(int capacity)
+	{
+		long[] oldKeys = keys;
+		int[] oldValues = values;
+		allocate(capacity);
+		for (int i = 0; i < oldKeys.length; i++)
+		{
+			long key = oldKeys[i];
+			if (key == EMPTY) continue;
+			int j = home(key);
+			while (keys[j] != EMPTY) j = (j + 1) & mask;
+			keys[j] = key;
+			values[j] = oldValues[i];
+		}
+	}
+}
@@ -0,0 +1,148 @@
+package com.cluejuggling;
+
+import java.util.Arrays;
+
+/**
+ * Pairs up a tick's despawns with spawns of the same item on the same tile, which are fake despawns (ladders, walking
+ * near an item, etc.). Each despawn cancels at most one spawn, the earliest one that hasn't been cancelled yet.
+ *
+ * Linear in spawns + despawns, and reuses its arrays between ticks.
+ */
+class SpawnReconciler
+{
+	private static final int NONE = -1;
+
+	// packed key -> first uncancelled spawn with that key, then chained through nextSameKey.
+	private final LongIntMap firstSpawn = new LongIntMap(64);
+	private int[] nextSameKey = new int[64];
+	private boolean[] spawnCancelled = new boolean[64];
+	private boolean[] despawnFake = new boolean[64];
+
+	// The events, split by type, in the order they happened.
+	private int[] spawnItemIds = new int[64];
+	private int[] spawnLocations = new int[64];
+	private int[] spawnDespawnTicks = new int[64];
+	private int[] despawnItemIds = new int[64];
+	private int[] despawnLocations = new int[64];
+	private int spawnCount;
+	private int despawnCount;
+
+	/**
+	 * Takes every event out of the ring.
+	 */
+	void reconcile(ItemEventRing events)
+	{
+		int eventCount = events.size();
+		spawnCount = 0;
+		despawnCount = 0;
+		for (int i = 0; i < eventCount; i++)
+		{
+			if (events.type(i) == ItemEventRing.SPAWN) {
+				if (spawnCount == spawnItemIds.length) growSpawns();
+				spawnItemIds[spawnCount] = events.itemId(i);
+				spawnLocations[spawnCount] = events.location(i);
+				spawnDespawnTicks[spawnCount] = events.despawnTick(i);
+				spawnCount++;
+			} else {
+				if (despawnCount == despawnItemIds.length) growDespawns();
+				despawnItemIds[despawnCount] = events.itemId(i);
+				despawnLocations[despawnCount] = events.location(i);
+				despawnCount++;
+			}
+		}
+		events.consume(eventCount);
+
+		firstSpawn.clear();
+		// Backwards, so each chain ends up in spawn order.
+		for (int i = spawnCount - 1; i >= 0; i--)
+		{
+			int head = firstSpawn.put(GroundItemKey.pack(spawnItemIds[i], spawnLocations[i]), i);
+			nextSameKey[i] = head == LongIntMap.MISSING ? NONE : head;
+			spawnCancelled[i] = false;
+		}
+
+		for (int i = 0; i < despawnCount; i++)
+		{
+			long key = GroundItemKey.pack(despawnItemIds[i], despawnLocations[i]);
+			int spawn = firstSpawn.get(key);
+			if (spawn == LongIntMap.MISSING) {
+				despawnFake[i] = false;
+				continue;
+			}
+
+			despawnFake[i] = true;
+			spawnCancelled[spawn] = true;
+			if (nextSameKey[spawn] == NONE) firstSpawn.remove(key);
+			else firstSpawn.put(key, nextSameKey[spawn]);
+		}
+	}
+
+	int spawnCount()
+	{
+		return spawnCount;
+	}
+
+	int spawnItemId(int i)
+	{
+		return spawnItemIds[i];
+	}
+
+	int spawnLocation(int i)
+	{
+		return spawnLocations[i];
+	}
+
+	int spawnDespawnTick(int i)
+	{
+		return spawnDespawnTicks[i];
+	}
+
+	int despawnCount()
+	{
+		return despawnCount;
+	}
+
+	int despawnItemId(int i)
+	{
+		return despawnItemIds[i];
+	}
+
+	int despawnLocation(int i)
+	{
+		return despawnLocations[i];
+	}
+
+	/**
+	 * Whether despawn i from the last {@link #reconcile} call had a matching spawn.
+	 */
+	boolean isFakeDespawn(int i)
+	{
+		return despawnFake[i];
+	}
+
+	/**
+	 * Whether spawn i from the last {@link #reconcile} call was matched with a despawn, and so isn't a real spawn.
+	 */
+	boolean isCancelledSpawn(int i)
+	{
+		return spawnCancelled[i];
+	}
+
+	private void growSpawns()
+	{
+		int length = spawnItemIds.length * 2;
+		spawnItemIds = Arrays.copyOf(spawnItemIds, length);
+		spawnLocations = Arrays.copyOf(spawnLocations, length);
+		spawnDespawnTicks = Arrays.copyOf(spawnDespawnTicks, length);
+		nextSameKey = new int[length];
+		spawnCancelled = new boolean[length];
+	}
+
+	private void growDespawns()
+	{
+		int length = despawnItemIds.length * 2;
+		despawnItemIds = Arrays.copyOf(despawnItemIds, length);
+		despawnLocations = Arrays.copyOf(despawnLocations, length);
+		despawnFake = new boolean[length];
+	}
+}
@@ -0,0 +1,66 @@
+package com.cluejuggling;
+
+/**
+ * Timer labels for infoboxes and menus. The strings come from tables, so rendering a timer doesn't format or allocate
+ * anything, and an instance remembers its label until the shown second changes.
+ */
+final class TimerText
+{
+	private static final String[] MINUTES = new String[121];
+	// indexed by seconds % 3600, like the old formatWithSeconds. Filled as needed, most of these never get shown.
+	private static final String[] WITH_SECONDS = new String[3600];
+
+	static
+	{
+		for (int i = 0; i < MINUTES.length; i++)
+		{
+			MINUTES[i] = i + "m";
+		}
+	}
+
+	/**
+	 * "Nm" from 10 minutes up, "m:ss" below that.
+	 */
+	static String format(long remainingMillis)
+	{
+		long seconds = Math.max(0, remainingMillis) / 1000;
+		return seconds >= 600 ? minutes(seconds / 60) : withSeconds(seconds);
+	}
+
+	static String formatWithSeconds(long remainingMillis)
+	{
+		return withSeconds(Math.max(0, remainingMillis) / 1000);
+	}
+
+	private static String minutes(long minutes)
+	{
+		return minutes < MINUTES.length ? MINUTES[(int) minutes] : minutes + "m";
+	}
+
+	private static String withSeconds(long seconds)
+	{
+		int index = (int) (seconds % 3600);
+		String label = WITH_SECONDS[index];
+		if (label == null) {
+			label = String.format("%d:%02d", index / 60, index % 60);
+			WITH_SECONDS[index] = label;
+		}
+		return label;
+	}
+
+	private long shownSecond = -1;
+	private String text;
+
+	/**
+	 * Same as {@link #format}, but only looks the label up again when the second changes.
+	 */
+	String get(long remainingMillis)
+	{
+		long second = Math.max(0, remainingMillis) / 1000;
+		if (second != shownSecond) {
+			shownSecond = second;
+			text = format(remainingMillis);
+		}
+		return text;
+	}
+}
@@ -0,0 +1,60 @@
+package com.cluejuggling;
+
+import lombok.Getter;
+
+/**
+ * Coalesces saves: {@link #markDirty()} is cheap, and the actual write happens at most once per interval from
+ * {@link #flushIfDue}, or right away from {@link #flush()}. Client thread only.
+ */
+class WriteBehind
+{
+	private final Runnable write;
+	private boolean dirty = false;
+	private long lastWrite = 0;
+
+	@Getter
+	private int savesRequested = 0;
+	@Getter
+	private int savesWritten = 0;
+
+	WriteBehind(Runnable write)
+	{
+		this.write = write;
+	}
+
+	void markDirty()
+	{
+		dirty = true;
+		savesRequested++;
+	}
+
+	void flushIfDue(long now, long intervalMillis)
+	{
+		if (dirty && now - lastWrite >= intervalMillis) {
+			lastWrite = now;
+			flush();
+		}
+	}
+
+	void flush()
+	{
+		if (!dirty) return;
+		dirty = false;
+		savesWritten++;
+		write.run();
+	}
+
+	/**
+	 * @return saves that were folded into another save instead of being written on their own.
+	 */
+	int getSavesCoalesced()
+	{
+		return savesRequested - savesWritten;
+	}
+
+	void resetCounts()
+	{
+		savesRequested = 0;
+		savesWritten = 0;
+	}
+}
@@ -0,0 +1,99 @@
+package com.cluejuggling;
+
+import com.cluejuggling.ClueScrollJugglingPlugin.DroppedClue;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Iterator;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+public class ClueCodecTest
+{
+	@Test
+	public void roundTrip() throws IOException
+	{
+		ClueTable table = new ClueTable();
+		table.add(2677, GroundItemKey.packLocation(3200, 3201, 0), 0, 1234, 0, ClueTable.NOTIFIED);
+		table.add(12073, GroundItemKey.packLocation(2440, 3090, 1), 0, -5, 0, 0);
+		// the invalid timer flag isn't saved.
+		table.add(23182, GroundItemKey.packLocation(32767, 32767, 3), 0, 0, 0, ClueTable.INVALID_TIMER);
+
+		String data = new ClueCodec().encode(table);
+		assertFalse(ClueCodec.isJson(data));
+
+		ClueTable decoded = new ClueTable();
+		ClueCodec.decode(data, decoded, 1000, 50, 0);
+		assertEquals(3, decoded.size());
+		Iterator<DroppedClue> clues = decoded.iterator();
+		assertClue(decoded, clues.next(), 2677, 3200, 3201, 0, 1234, true);
+		assertClue(decoded, clues.next(), 12073, 2440, 3090, 1, -5, false);
+		assertClue(decoded, clues.next(), 23182, 32767, 32767, 3, 0, false);
+		assertFalse(clues.hasNext());
+	}
+
+	@Test
+	public void decodeSetsDespawnTickAndFlags() throws IOException
+	{
+		ClueTable table = new ClueTable();
+		table.add(2677, GroundItemKey.packLocation(3200, 3200, 0), 0, 61, 0, 0);
+
+		ClueTable decoded = new ClueTable();
+		ClueCodec.decode(new ClueCodec().encode(table), decoded, 1000, 50, ClueTable.INVALID_TIMER);
+		DroppedClue clue = decoded.first();
+		assertEquals(50 + 102, clue.getDespawnTick()); // 61s is 101.67 ticks, rounded up.
+		assertTrue(clue.isInvalidTimer());
+		assertFalse(clue.isNotified());
+	}
+
+	@Test
+	public void emptyTable() throws IOException
+	{
+		ClueTable decoded = new ClueTable();
+		ClueCodec.decode(new ClueCodec().encode(new ClueTable()), decoded, 0, 0, 0);
+		assertTrue(decoded.isEmpty());
+	}
+
+	@Test
+	public void isJson()
+	{
+		assertTrue(ClueCodec.isJson("[]"));
+		assertTrue(ClueCodec.isJson("null"));
+		assertFalse(ClueCodec.isJson(new ClueCodec().encode(new ClueTable())));
+	}
+
+	@Test(expected = IOException.class)
+	public void truncated() throws IOException
+	{
+		ClueTable table = new ClueTable();
+		table.add(2677, GroundItemKey.packLocation(3200, 3200, 0), 0, 100, 0, 0);
+		byte[] bytes = Base64.getDecoder().decode(new ClueCodec().encode(table));
+		String truncated = Base64.getEncoder().encodeToString(Arrays.copyOf(bytes, bytes.length - 1));
+		ClueCodec.decode(truncated, new ClueTable(), 0, 0, 0);
+	}
+
+	@Test(expected = IOException.class)
+	public void unsupportedVersion() throws IOException
+	{
+		ClueCodec.decode(Base64.getEncoder().encodeToString(new byte[]{(byte) (ClueCodec.VERSION + 1), 0}), new ClueTable(), 0, 0, 0);
+	}
+
+	@Test(expected = IOException.class)
+	public void notBase64() throws IOException
+	{
+		ClueCodec.decode("not base64!", new ClueTable(), 0, 0, 0);
+	}
+
+	static void assertClue(ClueTable table, DroppedClue clue, int itemId, int x, int y, int plane, int timeRemaining, boolean notified)
+	{
+		assertEquals(itemId, clue.getItemId());
+		assertEquals(GroundItemKey.packLocation(x, y, plane), table.location(clue.slot));
+		assertEquals(x, clue.getLocation().getX());
+		assertEquals(y, clue.getLocation().getY());
+		assertEquals(plane, clue.getLocation().getPlane());
+		assertEquals(timeRemaining, clue.getTimeRemaining());
+		assertEquals(notified, clue.isNotified());
+	}
+}
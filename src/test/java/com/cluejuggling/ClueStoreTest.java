@@ -0,0 +1,147 @@
+package com.cluejuggling;
+
+import com.cluejuggling.ClueScrollJugglingPlugin.DroppedClue;
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class ClueStoreTest
+{
+	private static final long PROFILE = ClueStore.profileId("profile");
+	private static final long OTHER_PROFILE = ClueStore.profileId("other profile");
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private File storeFile() throws IOException
+	{
+		return new File(folder.newFolder(), "clues.dat");
+	}
+
+	@Test
+	public void freedRecordsGetReused() throws IOException
+	{
+		try (ClueStore store = ClueStore.open(storeFile()))
+		{
+			int first = store.add(PROFILE, 2677, location(0), 3600, 0);
+			int second = store.add(PROFILE, 2677, location(1), 3600, 0);
+			int third = store.add(PROFILE, 2677, location(2), 3600, 0);
+			assertEquals(3, new HashSet<>(Arrays.asList(first, second, third)).size());
+
+			store.free(second);
+			assertEquals(second, store.add(PROFILE, 2801, location(3), 1200, 0));
+
+			ClueTable table = new ClueTable();
+			store.read(PROFILE, table, 1000, 50, 0);
+			assertEquals(3, table.size());
+			assertClue(table, 2677, location(0), 3600, false, first);
+			assertClue(table, 2801, location(3), 1200, false, second);
+			assertClue(table, 2677, location(2), 3600, false, third);
+		}
+	}
+
+	@Test
+	public void growsPastTheInitialCapacity() throws IOException
+	{
+		File file = storeFile();
+		int clues = 600; // a bit over INITIAL_CAPACITY * 2, so it grows twice.
+		try (ClueStore store = ClueStore.open(file))
+		{
+			Set<Integer> records = new HashSet<>();
+			for (int i = 0; i < clues; i++)
+			{
+				assertTrue(records.add(store.add(PROFILE, 2677, location(i), i, 0)));
+			}
+
+			ClueTable table = new ClueTable();
+			store.read(PROFILE, table, 1000, 50, 0);
+			assertEquals(clues, table.size());
+			for (int i = 0; i < clues; i++)
+			{
+				assertEquals(i, table.timeRemaining(table.get(GroundItemKey.pack(2677, location(i))).slot));
+			}
+		}
+		assertTrue(file.length() > 16 + 24 * 256);
+	}
+
+	@Test
+	public void reopenedStoreHasTheClues() throws IOException
+	{
+		File file = storeFile();
+		int record;
+		try (ClueStore store = ClueStore.open(file))
+		{
+			record = store.add(PROFILE, 2677, location(0), 3600, 0);
+			store.setTimeRemaining(record, 1234);
+			store.setFlags(record, ClueTable.NOTIFIED);
+			for (int i = 1; i < 300; i++)
+			{
+				store.add(PROFILE, 12073, location(i), 600, 0);
+			}
+		}
+
+		try (ClueStore store = ClueStore.open(file))
+		{
+			ClueTable table = new ClueTable();
+			store.read(PROFILE, table, 1000, 50, ClueTable.INVALID_TIMER);
+			assertEquals(300, table.size());
+			DroppedClue clue = assertClue(table, 2677, location(0), 1234, true, record);
+			assertTrue(table.isInvalidTimer(clue.slot));
+			DroppedClue last = table.get(GroundItemKey.pack(12073, location(299)));
+			assertNotNull(last);
+			assertEquals(600, table.timeRemaining(last.slot));
+
+			// and it carries on where it left off.
+			store.free(record);
+			assertEquals(record, store.add(PROFILE, 2801, location(0), 60, 0));
+		}
+	}
+
+	@Test
+	public void readsOnlyItsOwnProfile() throws IOException
+	{
+		try (ClueStore store = ClueStore.open(storeFile()))
+		{
+			int mine = store.add(PROFILE, 2677, location(0), 3600, 0);
+			store.add(OTHER_PROFILE, 2677, location(0), 100, 0);
+			store.add(OTHER_PROFILE, 2801, location(1), 100, ClueTable.NOTIFIED);
+			int alsoMine = store.add(PROFILE, 2801, location(2), 1800, ClueTable.NOTIFIED);
+			store.add(OTHER_PROFILE, 12073, location(3), 100, 0);
+
+			ClueTable table = new ClueTable();
+			store.read(PROFILE, table, 1000, 50, 0);
+			assertEquals(2, table.size());
+			assertClue(table, 2677, location(0), 3600, false, mine);
+			assertClue(table, 2801, location(2), 1800, true, alsoMine);
+			assertNull(table.get(GroundItemKey.pack(2801, location(1))));
+
+			ClueTable other = new ClueTable();
+			store.read(OTHER_PROFILE, other, 1000, 50, 0);
+			assertEquals(3, other.size());
+		}
+	}
+
+	private static int location(int i)
+	{
+		return GroundItemKey.packLocation(3136 + i % 64, 3136 + i / 64, 0);
+	}
+
+	private static DroppedClue assertClue(ClueTable table, int itemId, int location, int timeRemaining, boolean notified, int record)
+	{
+		DroppedClue clue = table.get(GroundItemKey.pack(itemId, location));
+		assertNotNull(clue);
+		assertEquals(timeRemaining, table.timeRemaining(clue.slot));
+		assertEquals(notified, table.isNotified(clue.slot));
+		assertEquals(record, table.record(clue.slot));
+		return clue;
+	}
+}
@@ -0,0 +1,96 @@
+package com.cluejuggling;
+
+import com.cluejuggling.ClueScrollJugglingPlugin.DroppedClue;
+import com.google.gson.stream.JsonReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+public class ClueTableTest
+{
+	// What gson made of the old List<DroppedClue> saves, WorldPoint and all.
+	private static final String OLD_SAVE = "["
+		+ "{\"timeRemaining\":1234,\"groundItemKey\":{\"itemId\":2677,\"location\":{\"x\":3200,\"y\":3201,\"plane\":0}},\"notified\":true},"
+		+ "{\"timeRemaining\":-5,\"groundItemKey\":{\"itemId\":12073,\"location\":{\"x\":2440,\"y\":3090,\"plane\":1}},\"notified\":false},"
+		+ "{\"groundItemKey\":{\"location\":{\"plane\":3,\"x\":3000,\"y\":3100},\"itemId\":23182},\"timeRemaining\":600}"
+		+ "]";
+
+	@Test
+	public void readOldJsonSave() throws IOException
+	{
+		ClueTable table = new ClueTable();
+		table.readJson(new JsonReader(new StringReader(OLD_SAVE)), 1000, 50, 0);
+
+		assertEquals(3, table.size());
+		Iterator<DroppedClue> clues = table.iterator();
+		ClueCodecTest.assertClue(table, clues.next(), 2677, 3200, 3201, 0, 1234, true);
+		ClueCodecTest.assertClue(table, clues.next(), 12073, 2440, 3090, 1, -5, false);
+		DroppedClue last = clues.next();
+		ClueCodecTest.assertClue(table, last, 23182, 3000, 3100, 3, 600, false);
+		assertEquals(50 + 1000, last.getDespawnTick());
+		assertFalse(clues.hasNext());
+	}
+
+	@Test
+	public void readJsonAddsFlags() throws IOException
+	{
+		ClueTable table = new ClueTable();
+		table.readJson(new JsonReader(new StringReader(OLD_SAVE)), 1000, 50, ClueTable.INVALID_TIMER);
+		for (DroppedClue clue : table)
+		{
+			assertTrue(clue.isInvalidTimer());
+		}
+	}
+
+	@Test
+	public void readJsonNull() throws IOException
+	{
+		ClueTable table = new ClueTable();
+		table.readJson(new JsonReader(new StringReader("null")), 1000, 50, 0);
+		assertTrue(table.isEmpty());
+	}
+
+	@Test
+	public void oldJsonSaveSurvivesMigration() throws IOException
+	{
+		ClueTable table = new ClueTable();
+		table.readJson(new JsonReader(new StringReader(OLD_SAVE)), 1000, 50, 0);
+
+		ClueTable migrated = new ClueTable();
+		ClueCodec.decode(new ClueCodec().encode(table), migrated, 1000, 50, 0);
+		assertEquals(table.size(), migrated.size());
+		Iterator<DroppedClue> expected = table.iterator();
+		for (DroppedClue clue : migrated)
+		{
+			DroppedClue original = expected.next();
+			ClueCodecTest.assertClue(migrated, clue, original.getItemId(), original.getLocation().getX(), original.getLocation().getY(), original.getLocation().getPlane(), original.getTimeRemaining(), original.isNotified());
+		}
+	}
+
+	@Test
+	public void forEachInSceneStopsAtTheSceneEdge()
+	{
+		ClueTable table = new ClueTable();
+		DroppedClue inside = table.restore(2677, GroundItemKey.packLocation(3200, 3200, 0), 600, 1000, 50, 0);
+		DroppedClue corner = table.restore(2677, GroundItemKey.packLocation(3247, 3247, 0), 600, 1000, 50, 0);
+		table.restore(2677, GroundItemKey.packLocation(3248, 3200, 0), 600, 1000, 50, 0); // one past the east edge.
+		table.restore(2677, GroundItemKey.packLocation(3143, 3200, 0), 600, 1000, 50, 0); // one past the west edge.
+		table.restore(2677, GroundItemKey.packLocation(3201, 3200, 1), 600, 1000, 50, 0); // other plane.
+
+		List<DroppedClue> found = new ArrayList<>();
+		table.forEachInScene(3144, 3144, 3100, 3100, 3300, 3300, 0, slot -> found.add(table.view(slot)));
+		assertEquals(2, found.size());
+		assertTrue(found.contains(inside));
+		assertTrue(found.contains(corner));
+
+		found.clear();
+		table.forEachInScene(3144, 3144, 3300, 3300, 3400, 3400, 0, slot -> found.add(table.view(slot)));
+		assertTrue(found.isEmpty());
+	}
+}
@@ -0,0 +1,91 @@
+package com.cluejuggling;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import static org.junit.Assert.assertEquals;
+import org.junit.Test;
+
+/**
+ * Checks ExtraItemMatcher's one regex against the loop over every rule's MatchType.matches that the plugin used before.
+ */
+public class ExtraItemMatcherTest
+{
+	private static final String[] RULES = {
+		"clue scroll (easy)", "Clue scroll (easy)", "clue*", "CLUE*", "*(hard)", "*(HARD)", "*scroll*", "*SCROLL*",
+		"clue*(elite)", "C*e s*l (m*)", "*", "", " ", "2677", "rune (p++)", "a.b", "*.*", "c$[x]*", "*^{1}", "x\\Ey",
+		"*\\Q*", "casket*", "*key*", "reward casket (master)",
+	};
+
+	private static final String[] NAMES = {
+		"clue scroll (easy)", "Clue scroll (easy)", "clue scroll (hard)", "clue scroll (elite)", "clue scroll (master)",
+		"clue", "CLUE", "scroll", "challenge scroll (elite)", "reward casket (master)", "casket", "rune (p++)",
+		"rune (p)", "a.b", "axb", "c$[x]", "c$[x] thing", "^{1}", "the ^{1}", "x\\Ey", "xy", "\\Q", "a \\Q b", "key",
+		"dusty key", "coins", "2677", ".", " ",
+	};
+
+	@Test
+	public void eachRule()
+	{
+		for (String rule : RULES)
+		{
+			check(rule);
+		}
+	}
+
+	@Test
+	public void emptyEntries()
+	{
+		check("");
+		check(",");
+		check(" , ,clue*,, ");
+		check("2677,,*scroll*");
+	}
+
+	@Test
+	public void randomRuleLists()
+	{
+		Random random = new Random(1);
+		for (int i = 0; i < 2000; i++)
+		{
+			List<String> rules = new ArrayList<>();
+			int count = random.nextInt(6);
+			for (int j = 0; j < count; j++)
+			{
+				rules.add(RULES[random.nextInt(RULES.length)]);
+			}
+			check(String.join(",", rules));
+		}
+	}
+
+	private static void check(String extraItems)
+	{
+		ExtraItemMatcher matcher = ExtraItemMatcher.compile(extraItems);
+		for (String name : NAMES)
+		{
+			assertEquals("'" + extraItems + "' on '" + name + "'", oldMatches(extraItems, name), matcher.matchesName(name));
+		}
+	}
+
+	private static boolean oldMatches(String extraItems, String name)
+	{
+		List<MatchType> matchTypes = new ArrayList<>();
+		List<String> matchStrings = new ArrayList<>();
+		for (String s : extraItems.split(","))
+		{
+			s = s.trim();
+			try {
+				Integer.parseInt(s);
+			} catch (NumberFormatException ex) {
+				MatchType type = MatchType.getType(s);
+				matchTypes.add(type);
+				matchStrings.add(MatchType.prepareMatch(s, type));
+			}
+		}
+		for (int i = 0; i < matchTypes.size(); i++)
+		{
+			if (matchTypes.get(i).matches(name, matchStrings.get(i))) return true;
+		}
+		return false;
+	}
+}
@@ -0,0 +1,106 @@
+package com.cluejuggling;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import static org.junit.Assert.assertEquals;
+import org.junit.Test;
+
+/**
+ * Checks LongIntMap against a HashMap.
+ */
+public class LongIntMapTest
+{
+	// new LongIntMap(32) has 64 slots and doesn't grow until it has more than 32 keys.
+	private static final int MASK = 63;
+
+	@Test
+	public void randomOperations()
+	{
+		Random random = new Random(1);
+		for (int run = 0; run < 20; run++)
+		{
+			// a small pool so puts and removes keep hitting keys that are already there, with a quarter of it all
+			// landing on the table's last slot, until it grows.
+			long[] pool = new long[50 + random.nextInt(150)];
+			List<Long> lastSlot = keysWithHome(MASK, pool.length / 4, random);
+			for (int i = 0; i < pool.length; i++)
+			{
+				pool[i] = i < lastSlot.size() ? lastSlot.get(i) : random.nextLong();
+			}
+			check(random, pool, 10_000);
+		}
+	}
+
+	@Test
+	public void collisionsWrappingPastTheEnd()
+	{
+		Random random = new Random(2);
+		for (int run = 0; run < 200; run++)
+		{
+			// few enough that it never grows, so they all probe from the last slot around to the start.
+			long[] pool = new long[32];
+			List<Long> lastSlot = keysWithHome(MASK, 4 + random.nextInt(12), random);
+			List<Long> firstSlot = keysWithHome(0, random.nextInt(8), random);
+			for (int i = 0; i < pool.length; i++)
+			{
+				if (i < lastSlot.size()) pool[i] = lastSlot.get(i);
+				else if (i - lastSlot.size() < firstSlot.size()) pool[i] = firstSlot.get(i - lastSlot.size());
+				else pool[i] = random.nextLong();
+			}
+			check(random, pool, 200);
+		}
+	}
+
+	private static void check(Random random, long[] pool, int operations)
+	{
+		LongIntMap map = new LongIntMap(32);
+		Map<Long, Integer> expected = new HashMap<>();
+		for (int i = 0; i < operations; i++)
+		{
+			long key = pool[random.nextInt(pool.length)];
+			switch (random.nextInt(3)) {
+				case 0:
+					int value = random.nextInt(Integer.MAX_VALUE);
+					assertEquals(expected.getOrDefault(key, LongIntMap.MISSING).intValue(), map.put(key, value));
+					expected.put(key, value);
+					break;
+				case 1:
+					assertEquals(expected.getOrDefault(key, LongIntMap.MISSING).intValue(), map.remove(key));
+					expected.remove(key);
+					break;
+				default:
+					assertEquals(expected.getOrDefault(key, LongIntMap.MISSING).intValue(), map.get(key));
+			}
+			assertEquals(expected.size(), map.size());
+		}
+		for (long key : pool)
+		{
+			assertEquals(expected.getOrDefault(key, LongIntMap.MISSING).intValue(), map.get(key));
+			assertEquals(expected.containsKey(key), map.containsKey(key));
+		}
+		map.clear();
+		assertEquals(0, map.size());
+		for (long key : pool)
+		{
+			assertEquals(LongIntMap.MISSING, map.get(key));
+		}
+	}
+
+	/**
+	 * Random keys that LongIntMap's hash puts in the slot, for a table of MASK + 1 slots.
+	 */
+	private static List<Long> keysWithHome(int slot, int count, Random random)
+	{
+		List<Long> keys = new ArrayList<>();
+		while (keys.size() < count)
+		{
+			long key = random.nextLong();
+			long h = key * 0x9E3779B97F4A7C15L;
+			if (((int) (h ^ (h >>> 32)) & MASK) == slot && key != Long.MIN_VALUE && !keys.contains(key)) keys.add(key);
+		}
+		return keys;
+	}
+}
@@ -0,0 +1,128 @@
+package com.cluejuggling;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import static org.junit.Assert.assertEquals;
+import org.junit.Test;
+
+/**
+ * Checks SpawnReconciler against the nested loop handleItemSpawns used to pair fake despawns with spawns.
+ */
+public class SpawnReconcilerTest
+{
+	private static final int TILE = GroundItemKey.packLocation(3200, 3200, 0);
+	private static final int OTHER_TILE = GroundItemKey.packLocation(3201, 3200, 0);
+
+	private final ItemEventRing ring = new ItemEventRing(256);
+	private final SpawnReconciler reconciler = new SpawnReconciler();
+
+	@Test
+	public void duplicateSpawnKeys()
+	{
+		// two spawns of the same item on the same tile, one despawn cancels the first.
+		check(new int[][]{{2677, TILE}, {2677, TILE}, {2801, TILE}}, new int[][]{{2677, TILE}});
+	}
+
+	@Test
+	public void severalDespawnsForOneKey()
+	{
+		check(new int[][]{{2677, TILE}}, new int[][]{{2677, TILE}, {2677, TILE}, {2677, TILE}});
+		check(new int[][]{{2677, TILE}, {2677, TILE}}, new int[][]{{2677, TILE}, {2677, TILE}, {2677, TILE}});
+	}
+
+	@Test
+	public void despawnsWithoutSpawns()
+	{
+		check(new int[][]{}, new int[][]{{2677, TILE}, {2801, OTHER_TILE}});
+		// same item on another tile, and another item on the same tile, don't match.
+		check(new int[][]{{2677, OTHER_TILE}, {2801, TILE}}, new int[][]{{2677, TILE}});
+	}
+
+	@Test
+	public void spawnsWithoutDespawns()
+	{
+		check(new int[][]{{2677, TILE}, {2677, OTHER_TILE}}, new int[][]{});
+	}
+
+	@Test
+	public void randomTicks()
+	{
+		Random random = new Random(1234);
+		int[] tiles = {TILE, OTHER_TILE, GroundItemKey.packLocation(3200, 3200, 1)};
+		int[] items = {2677, 2801, 526};
+		// more than the ring holds over all the ticks, so it wraps around, and some ticks bigger than the reconciler's
+		// starting arrays.
+		for (int tick = 0; tick < 500; tick++)
+		{
+			int[][] spawns = new int[random.nextInt(tick % 50 == 0 ? 100 : 8)][];
+			int[][] despawns = new int[random.nextInt(tick % 50 == 0 ? 100 : 8)][];
+			for (int i = 0; i < spawns.length; i++)
+			{
+				spawns[i] = new int[]{items[random.nextInt(items.length)], tiles[random.nextInt(tiles.length)]};
+			}
+			for (int i = 0; i < despawns.length; i++)
+			{
+				despawns[i] = new int[]{items[random.nextInt(items.length)], tiles[random.nextInt(tiles.length)]};
+			}
+			check(spawns, despawns);
+		}
+	}
+
+	/**
+	 * Queues the events despawns first (the order they're queued in doesn't matter to either), reconciles them, and
+	 * compares which spawns and despawns are real with the old loop.
+	 */
+	private void check(int[][] spawns, int[][] despawns)
+	{
+		for (int[] despawn : despawns)
+		{
+			ring.offer(ItemEventRing.DESPAWN, despawn[0], despawn[1], 0);
+		}
+		for (int i = 0; i < spawns.length; i++)
+		{
+			ring.offer(ItemEventRing.SPAWN, spawns[i][0], spawns[i][1], 1000 + i);
+		}
+		reconciler.reconcile(ring);
+		assertEquals(0, ring.size());
+
+		List<Integer> realSpawns = new ArrayList<>();
+		for (int i = 0; i < spawns.length; i++)
+		{
+			realSpawns.add(i);
+		}
+		List<Integer> realDespawns = new ArrayList<>();
+		// handleItemSpawns before SpawnReconciler.
+		outer:
+		for (int d = 0; d < despawns.length; d++)
+		{
+			for (int i = 0; i < realSpawns.size(); i++)
+			{
+				int[] spawn = spawns[realSpawns.get(i)];
+				if (spawn[0] == despawns[d][0] && spawn[1] == despawns[d][1]) {
+					realSpawns.remove(i);
+					continue outer;
+				}
+			}
+			realDespawns.add(d);
+		}
+
+		assertEquals(spawns.length, reconciler.spawnCount());
+		assertEquals(despawns.length, reconciler.despawnCount());
+		List<Integer> reconciledSpawns = new ArrayList<>();
+		for (int i = 0; i < reconciler.spawnCount(); i++)
+		{
+			assertEquals(spawns[i][0], reconciler.spawnItemId(i));
+			assertEquals(spawns[i][1], reconciler.spawnLocation(i));
+			assertEquals(1000 + i, reconciler.spawnDespawnTick(i));
+			if (!reconciler.isCancelledSpawn(i)) reconciledSpawns.add(i);
+		}
+		List<Integer> reconciledDespawns = new ArrayList<>();
+		for (int i = 0; i < reconciler.despawnCount(); i++)
+		{
+			if (!reconciler.isFakeDespawn(i)) reconciledDespawns.add(i);
+		}
+		assertEquals(realSpawns, reconciledSpawns);
+		assertEquals(realDespawns, reconciledDespawns);
+	}
+}